@@ -1,5 +1,7 @@
 package enigma;
 
+import java.util.Arrays;
+
 /** An alphabet of encodable characters.  Provides a mapping from characters
  *  to and from indices into the alphabet.
  *  @author Devyanshi Agarwal
@@ -10,6 +12,28 @@ class Alphabet {
      *  K (numbering from 0). No character may be duplicated. */
     Alphabet(String chars) {
         _chars = chars;
+        int max = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            max = Math.max(max, chars.charAt(i));
+        }
+        if (max < DIRECT_LIMIT) {
+            _direct = new int[max + 1];
+            Arrays.fill(_direct, -1);
+            _keys = null;
+            _values = null;
+        } else {
+            int capacity = Integer.highestOneBit(2 * chars.length() + 1) << 1;
+            _direct = null;
+            _keys = new char[capacity];
+            _values = new int[capacity];
+            Arrays.fill(_values, -1);
+        }
+        for (int i = 0; i < chars.length(); i++) {
+            if (!add(chars.charAt(i), i)) {
+                throw EnigmaException.error("Duplicate character '%c' in"
+                        + " alphabet", chars.charAt(i));
+            }
+        }
     }
 
     /** A default alphabet of all upper-case characters. */
@@ -24,12 +48,7 @@ class Alphabet {
 
     /** Returns true if CH is in this alphabet. */
     boolean contains(char ch) {
-        for (int i = 0; i < size(); i++) {
-            if (_chars.charAt(i) == ch) {
-                return true;
-            }
-        }
-        return false;
+        return index(ch) >= 0;
     }
 
     /** Returns character number INDEX in the alphabet, where
@@ -44,14 +63,67 @@ class Alphabet {
     /** Returns the index of character CH which must be in
      *  the alphabet. This is the inverse of toChar(). */
     int toInt(char ch) {
-        for (int i = 0; i < size(); i++) {
-            if (_chars.charAt(i) == ch) {
-                return i;
+        int index = index(ch);
+        if (index < 0) {
+            throw EnigmaException.error("out of range");
+        }
+        return index;
+    }
+
+    /** Returns the index of CH, or -1 if CH is not in this alphabet. */
+    private int index(char ch) {
+        if (_direct != null) {
+            return ch < _direct.length ? _direct[ch] : -1;
+        }
+        int mask = _keys.length - 1;
+        for (int h = hash(ch) & mask; _values[h] >= 0; h = (h + 1) & mask) {
+            if (_keys[h] == ch) {
+                return _values[h];
+            }
+        }
+        return -1;
+    }
+
+    /** Record that CH has index INDEX.  Returns false if CH was
+     *  already present. */
+    private boolean add(char ch, int index) {
+        if (_direct != null) {
+            if (_direct[ch] >= 0) {
+                return false;
             }
+            _direct[ch] = index;
+            return true;
         }
-        throw EnigmaException.error("out of range");
+        int mask = _keys.length - 1;
+        int h = hash(ch) & mask;
+        for (; _values[h] >= 0; h = (h + 1) & mask) {
+            if (_keys[h] == ch) {
+                return false;
+            }
+        }
+        _keys[h] = ch;
+        _values[h] = index;
+        return true;
     }
 
+    /** Returns a well-spread hash of CH for the open-addressed table. */
+    private static int hash(char ch) {
+        int h = ch * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Characters below this value are indexed through a direct table;
+     *  alphabets using larger characters use an open-addressed one. */
+    private static final int DIRECT_LIMIT = 1024;
+
     /** String of characters.*/
     private String _chars;
+    /** Index of each character, indexed by the character itself, or null
+     *  if this alphabet uses _keys and _values. */
+    private final int[] _direct;
+    /** Open-addressed table of the characters in this alphabet. */
+    private final char[] _keys;
+    /** Index of the character in the same slot of _keys, or -1 for an
+     *  empty slot. */
+    private final int[] _values;
 }
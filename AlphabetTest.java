@@ -0,0 +1,57 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+/** The suite of all JUnit tests for the Alphabet class.
+ *  @author Devyanshi Agarwal
+ */
+public class AlphabetTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testToIntToChar() {
+        Alphabet a = new Alphabet("ABC123DEF456GH!@78J0");
+        String chars = "ABC123DEF456GH!@78J0";
+        for (int i = 0; i < chars.length(); i += 1) {
+            assertEquals(i, a.toInt(chars.charAt(i)));
+            assertEquals(chars.charAt(i), a.toChar(i));
+        }
+        assertTrue(a.contains('@'));
+        assertFalse(a.contains('Z'));
+        assertFalse(a.contains(' '));
+    }
+
+    @Test
+    public void testWideCharacters() {
+        String chars = "\u4e00\u4e01AB\uffff\u0800";
+        Alphabet a = new Alphabet(chars);
+        for (int i = 0; i < chars.length(); i += 1) {
+            assertEquals(i, a.toInt(chars.charAt(i)));
+        }
+        assertFalse(a.contains('\u4e02'));
+        assertFalse(a.contains('C'));
+    }
+
+    @Test(expected = EnigmaException.class)
+    public void testNotInAlphabet() {
+        new Alphabet("DEVYANSHI").toInt('Z');
+    }
+
+    @Test(expected = EnigmaException.class)
+    public void testDuplicate() {
+        new Alphabet("ABCA");
+    }
+
+    @Test(expected = EnigmaException.class)
+    public void testWideDuplicate() {
+        new Alphabet("\u4e00B\u4e00");
+    }
+}
@@ -0,0 +1,227 @@
+package enigma;
+
+import static enigma.EnigmaException.*;
+
+/** Many machines with the same rotors and plugboard, differing only in
+ *  their rotor settings, that are advanced and convert together.  Each
+ *  machine is a lane: its state is held across arrays with one entry per
+ *  lane for each slot (the setting of the slot's rotor, and its offset
+ *  into the slot's table), rather than in Rotor objects, so that each
+ *  step of a conversion is a short loop over the lanes, without calls or
+ *  branches, that the compiler can unroll and schedule freely.  For key
+ *  searches, which run the same text through many candidate settings.
+ *  @author Devyanshi Agarwal
+ */
+class BatchMachine {
+
+    /** A batch of up to CAPACITY lanes, with the rotors and plugboard of
+     *  MACHINE (see load). */
+    BatchMachine(Machine machine, int capacity) {
+        if (capacity <= 0) {
+            throw error("batch capacity must be positive");
+        }
+        _n = machine.alphabet().size();
+        _numRotors = machine.numRotors();
+        _first = _numRotors - machine.numPawls();
+        _forward = new int[_numRotors][];
+        _backward = new int[_numRotors][];
+        _notches = new int[_numRotors][_n];
+        _settings = new int[_numRotors][capacity];
+        _bases = new int[_numRotors][capacity];
+        _ids = new int[capacity];
+        _pushed = new int[capacity];
+        _plugForward = new int[_n];
+        _plugBackward = new int[_n];
+        load(machine);
+    }
+
+    /** Take my rotors and plugboard from those now in MACHINE, which
+     *  must be like the one I was made with, and remove all lanes. */
+    void load(Machine machine) {
+        for (int k = 0; k < _numRotors; k++) {
+            Rotor rotor = machine.rotor(k);
+            if (rotor == null) {
+                throw error("rotors not inserted");
+            }
+            _forward[k] = rotor.forwardTable();
+            _backward[k] = rotor.backwardTable();
+            for (int p = 0; p < _n; p++) {
+                _notches[k][p] = rotor.notchAt(p) ? 1 : 0;
+            }
+        }
+        Permutation plugboard = machine.plugboard();
+        for (int c = 0; c < _n; c++) {
+            _plugForward[c] = plugboard.permute(c);
+            _plugBackward[c] = plugboard.invert(c);
+        }
+        clear();
+    }
+
+    /** Return the largest number of lanes I can hold. */
+    int capacity() {
+        return _ids.length;
+    }
+
+    /** Return the number of lanes I hold. */
+    int size() {
+        return _size;
+    }
+
+    /** Remove all lanes. */
+    void clear() {
+        _size = 0;
+        _added = 0;
+    }
+
+    /** Add a lane whose rotor in slot K has setting SETTINGS[K] and ring
+     *  setting RINGS[K], for each slot K after the first (the
+     *  reflector's), which has setting 0.  Its id is the number of lanes
+     *  added before it since I was last cleared.  Requires that I have
+     *  fewer than capacity() lanes. */
+    void add(int[] settings, int[] rings) {
+        int j = _size++;
+        _settings[0][j] = 0;
+        _bases[0][j] = 0;
+        for (int k = 1; k < _numRotors; k++) {
+            int offset = settings[k] - rings[k];
+            _settings[k][j] = settings[k];
+            _bases[k][j] = (offset < 0 ? offset + _n : offset) * _n;
+        }
+        _ids[j] = _added++;
+    }
+
+    /** Return the id of lane J. */
+    int id(int j) {
+        return _ids[j];
+    }
+
+    /** Advance the rotors of every lane, as for one keystroke, and set
+     *  OUT[J] to the conversion of C by lane J, for each lane J. */
+    void convert(int c, int[] out) {
+        advance();
+        int input = _plugForward[c];
+        for (int j = 0; j < _size; j++) {
+            out[j] = input;
+        }
+        pass(out);
+    }
+
+    /** Advance the rotors of every lane, as for one keystroke, and set
+     *  OUT[J] to the conversion of IN[J] by lane J, for each lane J. */
+    void convert(int[] in, int[] out) {
+        advance();
+        int[] plug = _plugForward;
+        for (int j = 0; j < _size; j++) {
+            out[j] = plug[in[j]];
+        }
+        pass(out);
+    }
+
+    /** Keep only the lanes J for which RESULTS[J] is C, keeping their
+     *  order, and return how many there are. */
+    int retain(int[] results, int c) {
+        int kept = 0;
+        for (int j = 0; j < _size; j++) {
+            if (results[j] == c) {
+                if (kept != j) {
+                    for (int k = 0; k < _numRotors; k++) {
+                        _settings[k][kept] = _settings[k][j];
+                        _bases[k][kept] = _bases[k][j];
+                    }
+                    _ids[kept] = _ids[j];
+                }
+                kept += 1;
+            }
+        }
+        _size = kept;
+        return kept;
+    }
+
+    /** Advance the rotors of every lane, as Machine does: the rotor in
+     *  the last slot always moves, and each other moving rotor moves if
+     *  the rotor to its right is at a notch, or if it pushes the rotor to
+     *  its left. */
+    private void advance() {
+        int n = _n, size = _size, last = _numRotors - 1;
+        if (_first > last) {
+            return;
+        }
+        int[] pushed = _pushed;
+        for (int j = 0; j < size; j++) {
+            pushed[j] = 0;
+        }
+        for (int k = _first; k < last; k++) {
+            int[] notch = _notches[k + 1], right = _settings[k + 1];
+            int[] settings = _settings[k], bases = _bases[k];
+            for (int j = 0; j < size; j++) {
+                int was = pushed[j];
+                int push = notch[right[j]] & (was ^ 1);
+                int move = push | was;
+                int s = settings[j] + move;
+                settings[j] = s == n ? 0 : s;
+                int b = bases[j] + move * n;
+                bases[j] = b == n * n ? 0 : b;
+                pushed[j] = push;
+            }
+        }
+        int[] settings = _settings[last], bases = _bases[last];
+        for (int j = 0; j < size; j++) {
+            int s = settings[j] + 1;
+            settings[j] = s == n ? 0 : s;
+            int b = bases[j] + n;
+            bases[j] = b == n * n ? 0 : b;
+        }
+    }
+
+    /** Replace X[J], for each lane J, by the result of passing it through
+     *  lane J's rotors and reflector and then back through the
+     *  plugboard. */
+    private void pass(int[] x) {
+        int size = _size;
+        for (int k = _numRotors - 1; k >= 0; k--) {
+            int[] table = _forward[k], bases = _bases[k];
+            for (int j = 0; j < size; j++) {
+                x[j] = table[bases[j] + x[j]];
+            }
+        }
+        for (int k = 1; k < _numRotors; k++) {
+            int[] table = _backward[k], bases = _bases[k];
+            for (int j = 0; j < size; j++) {
+                x[j] = table[bases[j] + x[j]];
+            }
+        }
+        int[] plug = _plugBackward;
+        for (int j = 0; j < size; j++) {
+            x[j] = plug[x[j]];
+        }
+    }
+
+    /** Size of the alphabet. */
+    private final int _n;
+    /** Number of slots. */
+    private final int _numRotors;
+    /** First slot with a pawl. */
+    private final int _first;
+    /** The compiled tables of the rotor in each slot (see
+     *  Rotor.forwardTable and Rotor.backwardTable). */
+    private final int[][] _forward, _backward;
+    /** _notches[K][P] is 1 iff the rotor in slot K has a notch at
+     *  setting P, and otherwise 0. */
+    private final int[][] _notches;
+    /** _settings[K][J] is the setting of the rotor in slot K of lane J. */
+    private final int[][] _settings;
+    /** _bases[K][J] is the offset of the rotor in slot K of lane J times
+     *  the alphabet size: the start of its row in the slot's tables. */
+    private final int[][] _bases;
+    /** Id of each lane. */
+    private final int[] _ids;
+    /** Working storage: whether each lane's rotor has pushed the rotor to
+     *  its left during advance. */
+    private final int[] _pushed;
+    /** The plugboard, and its inverse. */
+    private final int[] _plugForward, _plugBackward;
+    /** Number of lanes. */
+    private int _size;
+    /** Number of lanes added since last cleared. */
+    private int _added;
+}
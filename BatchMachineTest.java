@@ -0,0 +1,112 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the BatchMachine class.
+ *  @author Devyanshi Agarwal
+ */
+public class BatchMachineTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** Number of lanes in the batches tested. */
+    private static final int LANES = 40;
+
+    /** Return a 5-slot, 3-pawl machine with the naval rotors B, Beta, VI,
+     *  VII and VIII, which have two notches each, and PLUGBOARD. */
+    private Machine navalMachine(String plugboard) {
+        Machine m = new Machine(UPPER, 5, 3, navalRotors());
+        m.setCompiled(true);
+        m.insertRotors(new String[] { "B", "Beta", "VI", "VII", "VIII" });
+        m.setPlugboard(new Permutation(plugboard, UPPER));
+        return m;
+    }
+
+    /** Fill BATCH with LANES lanes with settings chosen by RANDOM, and
+     *  return copies of TEMPLATE set the same way, by lane. */
+    private Machine[] fill(BatchMachine batch, Machine template,
+                           Random random) {
+        Machine[] machines = new Machine[LANES];
+        int[] settings = new int[5], rings = new int[5];
+        for (int j = 0; j < LANES; j += 1) {
+            for (int k = 1; k < 5; k += 1) {
+                settings[k] = random.nextInt(26);
+                rings[k] = k >= 2 ? random.nextInt(26) : 0;
+            }
+            batch.add(settings, rings);
+            machines[j] = template.copy();
+            machines[j].setPositions(settings, rings);
+        }
+        return machines;
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testMatchesMachine() {
+        Machine template = navalMachine("(AQ) (EX) (IP) (TR) (BY)");
+        BatchMachine batch = new BatchMachine(template, LANES);
+        Random random = new Random(7);
+        Machine[] machines = fill(batch, template, random);
+        assertEquals(LANES, batch.size());
+        int[] in = new int[LANES], out = new int[LANES];
+        for (int i = 0; i < 2000; i += 1) {
+            if (i % 2 == 0) {
+                int c = random.nextInt(26);
+                batch.convert(c, out);
+                for (int j = 0; j < LANES; j += 1) {
+                    assertEquals(machines[j].convert(c), out[j]);
+                }
+            } else {
+                for (int j = 0; j < LANES; j += 1) {
+                    in[j] = random.nextInt(26);
+                }
+                batch.convert(in, out);
+                for (int j = 0; j < LANES; j += 1) {
+                    assertEquals(machines[j].convert(in[j]), out[j]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRetain() {
+        Machine template = navalMachine("");
+        BatchMachine batch = new BatchMachine(template, LANES);
+        Random random = new Random(8);
+        Machine[] machines = fill(batch, template, random);
+        int[] out = new int[LANES];
+        batch.convert(0, out);
+        int target = out[LANES - 1];
+        int expected = 0;
+        for (int j = 0; j < LANES; j += 1) {
+            expected += out[j] == target ? 1 : 0;
+            machines[j].convert(0);
+        }
+        assertEquals(expected, batch.retain(out, target));
+        assertEquals(expected, batch.size());
+        for (int j = 1; j < batch.size(); j += 1) {
+            assertTrue(batch.id(j - 1) < batch.id(j));
+        }
+        assertEquals(LANES - 1, batch.id(batch.size() - 1));
+        for (int i = 0; i < 100; i += 1) {
+            batch.convert(i % 26, out);
+            for (int j = 0; j < batch.size(); j += 1) {
+                assertEquals(machines[batch.id(j)].convert(i % 26), out[j]);
+            }
+        }
+        batch.clear();
+        assertEquals(0, batch.size());
+    }
+}
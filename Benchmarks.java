@@ -0,0 +1,500 @@
+package enigma;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/** Timing benchmarks for the enigma package.  Each benchmark is run
+ *  for WARMUP_ITERATIONS untimed and MEASURED_ITERATIONS timed
+ *  iterations of about ITERATION_NANOS each, and is reported as the
+ *  mean and standard deviation of the time per operation.
+ *  @author Devyanshi Agarwal
+ */
+public class Benchmarks {
+
+    /** Run the benchmarks whose names contain one of ARGS (all of them if
+     *  there are none), writing a table to the standard output, or
+     *  comma-separated values if ARGS contains "--csv". */
+    public static void main(String... args) throws IOException {
+        boolean csv = false;
+        List<String> filters = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--csv")) {
+                csv = true;
+            } else {
+                filters.add(arg);
+            }
+        }
+        new Benchmarks(System.out, csv, filters).runAll();
+    }
+
+    /** Benchmarks writing results to OUT, as comma-separated values iff
+     *  CSV, and running only those whose names contain one of FILTERS,
+     *  or all if FILTERS is empty. */
+    Benchmarks(PrintStream out, boolean csv, List<String> filters) {
+        _out = out;
+        _csv = csv;
+        _filters = filters;
+    }
+
+    /** A benchmarked operation. */
+    interface Operation {
+        /** Perform the operation REPS times, returning a value that depends
+         *  on the results so that they cannot be optimized away. */
+        long run(long reps) throws Exception;
+    }
+
+    /** Run all selected benchmarks. */
+    void runAll() throws IOException {
+        if (_csv) {
+            _out.println("benchmark,params,ns_per_op,stddev,ops_per_s");
+        } else {
+            _out.printf("%-24s %-28s %16s %12s %14s%n", "Benchmark",
+                        "Params", "ns/op", "+/-", "ops/s");
+        }
+
+        Permutation rotorI = new Permutation(naval("I"), UPPER);
+        bench("permutation.permute", "naval I", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i += 1) {
+                sum += rotorI.permute((int) (i % 26));
+            }
+            return sum;
+        });
+        bench("permutation.invert", "naval I", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i += 1) {
+                sum += rotorI.invert((int) (i % 26));
+            }
+            return sum;
+        });
+
+        for (int size : ALPHABET_SIZES) {
+            Alphabet alpha = alphabet(size);
+            char[] chars = new char[size];
+            for (int i = 0; i < size; i += 1) {
+                chars[i] = alpha.toChar(i);
+            }
+            bench("alphabet.toInt", "size=" + size, reps -> {
+                long sum = 0;
+                for (long i = 0; i < reps; i += 1) {
+                    sum += alpha.toInt(chars[(int) (i % size)]);
+                }
+                return sum;
+            });
+        }
+
+        Rotor rotorIII = new MovingRotor("III",
+                                         new Permutation(naval("III"),
+                                                         UPPER), "V");
+        bench("rotor.convertForward", "naval III", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i += 1) {
+                rotorIII.set((int) (i % 26));
+                sum += rotorIII.convertForward((int) (i % 13));
+            }
+            return sum;
+        });
+        bench("rotor.convertBackward", "naval III", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i += 1) {
+                rotorIII.set((int) (i % 26));
+                sum += rotorIII.convertBackward((int) (i % 13));
+            }
+            return sum;
+        });
+
+        for (boolean compiled : new boolean[] { false, true }) {
+            String mode = compiled ? "compiled" : "interpreted";
+            for (int size : ALPHABET_SIZES) {
+                for (int slots : ROTOR_COUNTS) {
+                    Machine m = randomMachine(size, slots, compiled);
+                    bench("machine.convertInt",
+                          String.format("%s size=%d rotors=%d", mode, size,
+                                        slots), reps -> {
+                            long sum = 0;
+                            for (long i = 0; i < reps; i += 1) {
+                                sum += m.convert((int) (i % size));
+                            }
+                            return sum;
+                        });
+                }
+            }
+            Machine naval = navalMachine(compiled);
+            String msg = randomText(UPPER_STRING, MESSAGE_LENGTH, 1);
+            bench("machine.convertString",
+                  String.format("%s naval len=%d", mode, MESSAGE_LENGTH),
+                  reps -> {
+                      long sum = 0;
+                      for (long i = 0; i < reps; i += 1) {
+                          sum += naval.convert(msg).charAt(0);
+                      }
+                      return sum;
+                  });
+        }
+
+        Machine navalCompiled = navalMachine(true);
+        bench("machine.convertInt", "compiled naval", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i += 1) {
+                sum += navalCompiled.convert((int) (i % 26));
+            }
+            return sum;
+        });
+        Random random = new Random(4);
+        for (int lanes : BATCH_SIZES) {
+            BatchMachine batch = new BatchMachine(navalCompiled, lanes);
+            int[] settings = new int[5], rings = new int[5];
+            for (int j = 0; j < lanes; j += 1) {
+                for (int k = 1; k < 5; k += 1) {
+                    settings[k] = random.nextInt(26);
+                }
+                batch.add(settings, rings);
+            }
+            int[] out = new int[lanes];
+            bench("batch.convertInt", "naval lanes=" + lanes, reps -> {
+                long sum = 0;
+                for (long i = 0; i < reps; i += lanes) {
+                    batch.convert((int) (i % 26), out);
+                    sum += out[(int) (i % lanes)];
+                }
+                return sum;
+            });
+        }
+
+        NGrams trigrams = new NGrams(UPPER, 3,
+                                     randomText(UPPER_STRING, 1 << 16, 2));
+        String sample = randomText(UPPER_STRING, MESSAGE_LENGTH, 3);
+        int[] indices = new int[MESSAGE_LENGTH];
+        for (int i = 0; i < MESSAGE_LENGTH; i += 1) {
+            indices[i] = UPPER.toInt(sample.charAt(i));
+        }
+        int[] counts = new int[UPPER.size()];
+        bench("ngrams.score", String.format("n=3 len=%d", MESSAGE_LENGTH),
+              reps -> {
+                  double sum = 0;
+                  for (long i = 0; i < reps; i += 1) {
+                      sum += trigrams.score(indices, MESSAGE_LENGTH);
+                  }
+                  return (long) sum;
+              });
+        bench("hillclimb.ioc",
+              String.format("len=%d", MESSAGE_LENGTH), reps -> {
+                  double sum = 0;
+                  for (long i = 0; i < reps; i += 1) {
+                      sum += HillClimb.indexOfCoincidence(indices,
+                                                          MESSAGE_LENGTH,
+                                                          counts);
+                  }
+                  return (long) sum;
+              });
+
+        File dir = Files.createTempDirectory("enigma-bench").toFile();
+        try {
+            File config = write(dir, "naval.conf", navalConfig());
+            bench("main.readConfig", "naval", reps -> {
+                long sum = 0;
+                for (long i = 0; i < reps; i += 1) {
+                    try (Main main = new Main(new String[] {
+                                config.getPath() })) {
+                        sum += main.readConfig().numRotors();
+                    }
+                }
+                return sum;
+            });
+            File input = write(dir, "messages.in", navalMessages(1 << 20));
+            File output = new File(dir, "messages.out");
+            String[] args = { config.getPath(), input.getPath(),
+                              output.getPath() };
+            bench("main.process", "naval 1MiB", reps -> {
+                for (long i = 0; i < reps; i += 1) {
+                    try (Main main = new Main(args)) {
+                        main.process();
+                    }
+                }
+                return output.length();
+            });
+        } finally {
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    /** Time OPERATION, called NAME with parameters PARAMS, and report the
+     *  result, if NAME is selected. */
+    void bench(String name, String params, Operation operation) {
+        if (!selected(name)) {
+            return;
+        }
+        try {
+            long reps = 1, elapsed;
+            while ((elapsed = time(operation, reps)) < CALIBRATION_NANOS) {
+                reps *= 2;
+            }
+            reps = Math.max(1, reps * ITERATION_NANOS / elapsed);
+            for (int i = 0; i < WARMUP_ITERATIONS; i += 1) {
+                time(operation, reps);
+            }
+            double[] nanosPerOp = new double[MEASURED_ITERATIONS];
+            double mean = 0;
+            for (int i = 0; i < MEASURED_ITERATIONS; i += 1) {
+                nanosPerOp[i] = (double) time(operation, reps) / reps;
+                mean += nanosPerOp[i] / MEASURED_ITERATIONS;
+            }
+            double variance = 0;
+            for (double x : nanosPerOp) {
+                variance += (x - mean) * (x - mean) / MEASURED_ITERATIONS;
+            }
+            report(name, params, mean, Math.sqrt(variance));
+        } catch (Exception excp) {
+            throw new RuntimeException(name + " failed", excp);
+        }
+    }
+
+    /** Return the nanoseconds taken to perform OPERATION REPS times. */
+    private long time(Operation operation, long reps) throws Exception {
+        long start = System.nanoTime();
+        _sink ^= operation.run(reps);
+        return System.nanoTime() - start;
+    }
+
+    /** Report that benchmark NAME with PARAMS took MEAN nanoseconds per
+     *  operation, with standard deviation STDDEV. */
+    private void report(String name, String params, double mean,
+                        double stddev) {
+        if (_csv) {
+            _out.printf("%s,%s,%.3f,%.3f,%.1f%n", name, params, mean, stddev,
+                        1e9 / mean);
+        } else {
+            _out.printf("%-24s %-28s %16.3f %12.3f %14.1f%n", name, params,
+                        mean, stddev, 1e9 / mean);
+        }
+    }
+
+    /** Return true iff benchmark NAME was selected. */
+    private boolean selected(String name) {
+        if (_filters.isEmpty()) {
+            return true;
+        }
+        for (String filter : _filters) {
+            if (name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Return an alphabet of SIZE characters: the upper-case letters if
+     *  SIZE is 26, and otherwise SIZE consecutive characters above
+     *  Latin-1. */
+    static Alphabet alphabet(int size) {
+        if (size == UPPER_STRING.length()) {
+            return new Alphabet(UPPER_STRING);
+        }
+        StringBuilder chars = new StringBuilder();
+        for (int i = 0; i < size; i += 1) {
+            chars.append((char) (FIRST_CHAR + i));
+        }
+        return new Alphabet(chars.toString());
+    }
+
+    /** Return a machine over a random alphabet of SIZE characters with
+     *  SLOTS rotor slots: a reflector followed by moving rotors, all
+     *  with random wirings, converting through tables iff COMPILED. */
+    static Machine randomMachine(int size, int slots, boolean compiled) {
+        Random random = new Random(size * 31 + slots);
+        Alphabet alpha = alphabet(size);
+        List<Character> chars = new ArrayList<>();
+        for (int i = 0; i < size; i += 1) {
+            chars.add(alpha.toChar(i));
+        }
+        ArrayList<Rotor> all = new ArrayList<>();
+        Collections.shuffle(chars, random);
+        StringBuilder pairs = new StringBuilder();
+        for (int i = 0; i < size; i += 2) {
+            pairs.append('(').append(chars.get(i)).append(chars.get(i + 1))
+                .append(')');
+        }
+        all.add(new Reflector("R", new Permutation(pairs.toString(), alpha)));
+        String[] names = new String[slots];
+        names[0] = "R";
+        StringBuilder setting = new StringBuilder();
+        for (int k = 1; k < slots; k += 1) {
+            Collections.shuffle(chars, random);
+            StringBuilder cycle = new StringBuilder("(");
+            for (char c : chars) {
+                cycle.append(c);
+            }
+            cycle.append(')');
+            names[k] = "M" + k;
+            all.add(new MovingRotor(names[k],
+                                    new Permutation(cycle.toString(), alpha),
+                                    String.valueOf(chars.get(0))));
+            setting.append(alpha.toChar(random.nextInt(size)));
+        }
+        Machine m = new Machine(alpha, slots, slots - 1, all);
+        m.setCompiled(compiled);
+        m.insertRotors(names);
+        m.setRotors(setting.toString(), "");
+        m.setPlugboard(new Permutation("", alpha));
+        return m;
+    }
+
+    /** Return a machine with the naval rotors B Beta III IV I at AXLE,
+     *  converting through tables iff COMPILED. */
+    static Machine navalMachine(boolean compiled) {
+        ArrayList<Rotor> all = new ArrayList<>();
+        for (String[] rotor : NAVAL_NOTCHES) {
+            Permutation perm = new Permutation(rotor[2], UPPER);
+            switch (rotor[1]) {
+            case "R":
+                all.add(new Reflector(rotor[0], perm));
+                break;
+            case "N":
+                all.add(new FixedRotor(rotor[0], perm));
+                break;
+            default:
+                all.add(new MovingRotor(rotor[0], perm,
+                                        rotor[1].substring(1)));
+                break;
+            }
+        }
+        Machine m = new Machine(UPPER, 5, 3, all);
+        m.setCompiled(compiled);
+        m.insertRotors(new String[] { "B", "Beta", "III", "IV", "I" });
+        m.setRotors("AXLE", "");
+        m.setPlugboard(new Permutation("(HQ) (EX) (IP) (TR) (BY)", UPPER));
+        return m;
+    }
+
+    /** Return the wiring of the naval rotor named NAME. */
+    static String naval(String name) {
+        for (String[] rotor : NAVAL_NOTCHES) {
+            if (rotor[0].equals(name)) {
+                return rotor[2];
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    /** Return the text of a configuration file for the naval rotors. */
+    static String navalConfig() {
+        StringBuilder config = new StringBuilder();
+        config.append(UPPER_STRING).append("\n5 3\n");
+        for (String[] rotor : NAVAL_NOTCHES) {
+            config.append(String.format(" %s %s %s%n", rotor[0], rotor[1],
+                                        rotor[2]));
+        }
+        return config.toString();
+    }
+
+    /** Return about LENGTH characters of input for the naval
+     *  configuration: messages of random lengths, each in lines of at most
+     *  LINE_LENGTH characters and preceded by a random settings line. */
+    static String navalMessages(int length) {
+        Random random = new Random(length);
+        String[] moving = { "I", "II", "III", "IV", "V", "VI", "VII",
+                            "VIII" };
+        StringBuilder input = new StringBuilder();
+        while (input.length() < length) {
+            List<String> rotors = new ArrayList<>(List.of(moving));
+            Collections.shuffle(rotors, random);
+            input.append(String.format("* B %s %s %s %s %s (AB) (CD)%n",
+                                       random.nextBoolean() ? "Beta" : "Gamma",
+                                       rotors.get(0), rotors.get(1),
+                                       rotors.get(2),
+                                       randomText(UPPER_STRING, 4,
+                                                  random.nextLong())));
+            for (int n = random.nextInt(MESSAGE_LENGTH); n > 0;
+                 n -= LINE_LENGTH) {
+                input.append(randomText(UPPER_STRING,
+                                        Math.min(n, LINE_LENGTH),
+                                        random.nextLong()))
+                    .append('\n');
+            }
+        }
+        return input.toString();
+    }
+
+    /** Return LEN characters drawn from CHARS by a generator seeded
+     *  with SEED. */
+    static String randomText(String chars, int len, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < len; i += 1) {
+            text.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return text.toString();
+    }
+
+    /** Write TEXT to the file named NAME in DIR, returning the file. */
+    private static File write(File dir, String name, String text)
+        throws IOException {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /** Alphabet sizes for machine benchmarks. */
+    static final int[] ALPHABET_SIZES = { 26, 96, 256 };
+    /** Rotor counts for machine benchmarks. */
+    static final int[] ROTOR_COUNTS = { 3, 5, 8 };
+    /** Numbers of lanes for batch benchmarks. */
+    static final int[] BATCH_SIZES = { 16, 256, 4096 };
+    /** First character of alphabets other than the upper-case letters. */
+    static final char FIRST_CHAR = '\u0100';
+    /** Length of messages. */
+    static final int MESSAGE_LENGTH = 1000;
+    /** Length of lines in input files. */
+    static final int LINE_LENGTH = 70;
+
+    /** The upper-case letters. */
+    static final String UPPER_STRING = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    /** The alphabet of the naval rotors. */
+    static final Alphabet UPPER = new Alphabet(UPPER_STRING);
+
+    /** The naval rotors, with their configuration-file descriptions and
+     *  their wirings in the A setting. */
+    static final String[][] NAVAL_NOTCHES = {
+        { "I", "MQ", "(AELTPHQXRU) (BKNW) (CMOY) (DFG) (IV) (JZ) (S)" },
+        { "II", "ME", "(FIXVYOMW) (CDKLHUP) (ESZ) (BJ) (GR) (NT) (A) (Q)" },
+        { "III", "MV", "(ABDHPEJT) (CFLVMZOYQIRWUKXSG) (N)" },
+        { "IV", "MJ", "(AEPLIYWCOXMRFZBSTGJQNH) (DV) (KU)" },
+        { "V", "MZ", "(AVOLDRWFIUQ) (BZKSMNHYC) (EGTJPX)" },
+        { "VI", "MZM", "(AJQDVLEOZWIYTS) (CGMNHFUX) (BPRK)" },
+        { "VII", "MZM", "(ANOUPFRIMBZTLWKSVEGCJYDHXQ)" },
+        { "VIII", "MZM", "(AFLSETWUNDHOZVICQ) (BKJ) (GXY) (MPR)" },
+        { "Beta", "N", "(ALBEVFCYODJWUGNMQTZSKPR) (HIX)" },
+        { "Gamma", "N", "(AFNIRLBSQWVXGUZDKMTPCOYJHE)" },
+        { "B", "R", "(AE) (BN) (CK) (DQ) (FU) (GY) (HW) (IJ) (LO) (MP) (RX) "
+          + "(SZ) (TV)" },
+        { "C", "R", "(AR) (BD) (CO) (EJ) (FN) (GT) (HK) (IV) (LM) (PW) (QZ) "
+          + "(SX) (UY)" },
+    };
+
+    /** Untimed iterations per benchmark. */
+    static final int WARMUP_ITERATIONS = 3;
+    /** Timed iterations per benchmark. */
+    static final int MEASURED_ITERATIONS = 5;
+    /** Minimum length of the calibration run, in nanoseconds. */
+    static final long CALIBRATION_NANOS = 10_000_000L;
+    /** Approximate length of an iteration, in nanoseconds. */
+    static final long ITERATION_NANOS = 200_000_000L;
+
+    /** Destination of results. */
+    private final PrintStream _out;
+    /** True iff results are written as comma-separated values. */
+    private final boolean _csv;
+    /** Substrings selecting benchmarks to run. */
+    private final List<String> _filters;
+    /** Combined results of all operations, so that none is dead code. */
+    private static volatile long _sink;
+}
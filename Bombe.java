@@ -0,0 +1,321 @@
+package enigma;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static enigma.EnigmaException.*;
+
+/** A known-plaintext search, in the manner of the Turing-Welchman Bombe,
+ *  for keys whose plugboard is unknown.
+ *
+ *  Write S_i for the permutation performed by the rotors and reflector
+ *  alone at the I'th keystroke, and s for the plugboard, which is its own
+ *  inverse.  A crib letter P_i that encrypts to C_i gives
+ *  s(C_i) = S_i(s(P_i)) and s(P_i) = S_i^-1(s(C_i)).  The crib's letters
+ *  joined by these equations form the menu.  For each rotor position, a
+ *  hypothesis s(X) = V for a well-connected menu letter X is propagated
+ *  through the menu and through the symmetry of s (if s(A) = B then
+ *  s(B) = A: the diagonal board) until nothing new follows.  Because every
+ *  step can be reversed, every hypothesis s(X) = V' reached this way
+ *  leads to the same conclusions; so if they are contradictory (some
+ *  letter has two partners), all of those hypotheses are rejected at
+ *  once, usually every one.  A position is reported only if a
+ *  consistent hypothesis is found for every part of the menu, along with
+ *  the plugboard pairs that it implies.  Letters that the menu does not
+ *  reach are left unplugged.
+ *  @author Devyanshi Agarwal
+ */
+class Bombe extends KeySearch {
+
+    /** A Bombe search among ROTORS, for a machine over ALPHABET with
+     *  NUMROTORS slots and PAWLS pawls, for keys that encrypt PLAINTEXT,
+     *  from the start of a message, as CIPHERTEXT, under some plugboard.
+     *  Ring settings of the moving rotors are searched iff RINGS. */
+    Bombe(Alphabet alphabet, int numRotors, int pawls,
+          Collection<Rotor> rotors, String plaintext, String ciphertext,
+          boolean rings) {
+        super(alphabet, numRotors, pawls, rotors, plaintext, ciphertext, "",
+              rings, false);
+        int[] plain = plaintext(), cipher = ciphertext();
+        _n = alphabet.size();
+        _length = plain.length;
+        _numRotors = numRotors;
+        for (int i = 0; i < _length; i++) {
+            if (plain[i] == cipher[i]) {
+                throw error("'%c' cannot encrypt to itself (position %d)",
+                            alphabet.toChar(plain[i]), i);
+            }
+        }
+
+        boolean involution = true;
+        for (Rotor rotor : rotors) {
+            if (rotor.reflecting()) {
+                Permutation perm = rotor.permutation();
+                for (int c = 0; c < _n; c++) {
+                    involution &= perm.permute(perm.permute(c)) == c;
+                }
+            }
+        }
+        _involution = involution;
+
+        int[] degree = new int[_n];
+        for (int i = 0; i < _length; i++) {
+            degree[plain[i]] += 1;
+            degree[cipher[i]] += 1;
+        }
+        _to = new int[_n][];
+        _at = new int[_n][];
+        _forward = new boolean[_n][];
+        for (int c = 0; c < _n; c++) {
+            _to[c] = new int[degree[c]];
+            _at[c] = new int[degree[c]];
+            _forward[c] = new boolean[degree[c]];
+            degree[c] = 0;
+        }
+        for (int i = 0; i < _length; i++) {
+            addEdge(plain[i], cipher[i], i, true, degree);
+            addEdge(cipher[i], plain[i], i, false, degree);
+        }
+        _tests = testLetters(plain, cipher);
+        _scratch = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    /** Return the letters from which hypotheses are propagated: one,
+     *  of highest degree, in each connected part of the menu, largest
+     *  part first. */
+    int[] tests() {
+        return _tests.clone();
+    }
+
+    @Override
+    String test(Machine m) {
+        Scratch s = _scratch.get();
+        s.start(m);
+        Arrays.fill(s._lit, false);
+        Arrays.fill(s._count, 0);
+        if (!solve(s, 0)) {
+            return null;
+        }
+        StringBuilder cycles = new StringBuilder();
+        Alphabet alphabet = alphabet();
+        for (int a = 0; a < _n; a++) {
+            for (int b = a + 1; b < _n; b++) {
+                if (s._lit[a * _n + b]) {
+                    if (cycles.length() > 0) {
+                        cycles.append(' ');
+                    }
+                    cycles.append('(').append(alphabet.toChar(a))
+                        .append(alphabet.toChar(b)).append(')');
+                }
+            }
+        }
+        return cycles.toString();
+    }
+
+    /** Return true iff the conclusions in S can be extended to a
+     *  consistent plugboard for all parts of the menu from the one whose
+     *  test letter is _tests[PART] on, leaving the result in S if so and
+     *  leaving S unchanged otherwise. */
+    private boolean solve(Scratch s, int part) {
+        if (part == _tests.length) {
+            return true;
+        }
+        int x = _tests[part];
+        if (s._count[x] > 0) {
+            return solve(s, part + 1);
+        }
+        boolean[] lit = part == 0 ? null : s._lit.clone();
+        int[] count = part == 0 ? null : s._count.clone();
+        boolean[] rejected = s._rejected[part];
+        Arrays.fill(rejected, false);
+        for (int v = 0; v < _n; v++) {
+            if (rejected[v]) {
+                continue;
+            }
+            if (close(s, x, v) && solve(s, part + 1)) {
+                return true;
+            }
+            for (int w = 0; w < _n; w++) {
+                rejected[w] |= s._lit[x * _n + w];
+            }
+            if (part == 0) {
+                Arrays.fill(s._lit, false);
+                Arrays.fill(s._count, 0);
+            } else {
+                System.arraycopy(lit, 0, s._lit, 0, lit.length);
+                System.arraycopy(count, 0, s._count, 0, count.length);
+            }
+        }
+        return false;
+    }
+
+    /** Add to the conclusions in S the hypothesis s(X) = V and all that
+     *  follows from it.  Returns false if they are contradictory, in which
+     *  case they may be incomplete, but include every hypothesis s(X) = W
+     *  that they would contain if completed, unless they give X every
+     *  possible partner. */
+    private boolean close(Scratch s, int x, int v) {
+        boolean[] lit = s._lit;
+        int[] count = s._count;
+        int[] queue = s._queue;
+        boolean consistent = true;
+        int head = 0, tail = 0;
+        int first = x * _n + v;
+        if (!lit[first]) {
+            lit[first] = true;
+            consistent = ++count[x] == 1;
+            queue[tail++] = first;
+        }
+        while (head < tail) {
+            int p = queue[head++];
+            int a = p / _n, b = p % _n;
+            int q = b * _n + a;
+            if (!lit[q]) {
+                lit[q] = true;
+                consistent &= ++count[b] == 1;
+                queue[tail++] = q;
+            }
+            int[] to = _to[a], at = _at[a];
+            boolean[] forward = _forward[a];
+            for (int e = 0; e < to.length; e++) {
+                int c = to[e];
+                int w = forward[e] || _involution ? s.scramble(at[e], b)
+                    : s.unscramble(at[e], b);
+                q = c * _n + w;
+                if (!lit[q]) {
+                    lit[q] = true;
+                    consistent &= ++count[c] == 1;
+                    queue[tail++] = q;
+                }
+            }
+            if (count[x] == _n) {
+                return false;
+            }
+        }
+        return consistent;
+    }
+
+    /** Add the menu edge from letter A to letter B at crib position I,
+     *  which goes through S_I if FORWARD and S_I^-1 otherwise.  DEGREE[A]
+     *  is the number of edges from A added so far. */
+    private void addEdge(int a, int b, int i, boolean forward, int[] degree) {
+        int e = degree[a]++;
+        _to[a][e] = b;
+        _at[a][e] = i;
+        _forward[a][e] = forward;
+    }
+
+    /** Return the test letters (see tests()) of the menu formed by the
+     *  crib PLAIN and CIPHER. */
+    private int[] testLetters(int[] plain, int[] cipher) {
+        int[] part = new int[_n];
+        Arrays.fill(part, -1);
+        ArrayList<int[]> parts = new ArrayList<>();
+        for (int i = 0; i < _length; i++) {
+            int start = plain[i];
+            if (part[start] >= 0) {
+                continue;
+            }
+            int best = start, size = 0;
+            ArrayList<Integer> stack = new ArrayList<>();
+            stack.add(start);
+            part[start] = parts.size();
+            while (!stack.isEmpty()) {
+                int a = stack.remove(stack.size() - 1);
+                size += 1;
+                if (_to[a].length > _to[best].length) {
+                    best = a;
+                }
+                for (int b : _to[a]) {
+                    if (part[b] < 0) {
+                        part[b] = parts.size();
+                        stack.add(b);
+                    }
+                }
+            }
+            parts.add(new int[] { best, size });
+        }
+        parts.sort((p0, p1) -> p1[1] - p0[1]);
+        int[] tests = new int[parts.size()];
+        for (int k = 0; k < tests.length; k++) {
+            tests[k] = parts.get(k)[0];
+        }
+        return tests;
+    }
+
+    /** Per-worker working storage. */
+    private class Scratch {
+
+        /** Set up for the candidate to which the rotors of M are set,
+         *  recording their offsets at each crib position. */
+        void start(Machine m) {
+            _machine = m;
+            for (int i = 0; i < _length; i++) {
+                m.step();
+                m.offsets(_offsets[i]);
+            }
+            Arrays.fill(_scrambled, -1);
+            Arrays.fill(_inverted, false);
+        }
+
+        /** Return S_I(C). */
+        int scramble(int i, int c) {
+            int k = i * _n + c;
+            int result = _scrambled[k];
+            if (result < 0) {
+                result = _scrambled[k] = _machine.scramble(_offsets[i], c);
+            }
+            return result;
+        }
+
+        /** Return S_I^-1(C). */
+        int unscramble(int i, int c) {
+            if (!_inverted[i]) {
+                for (int d = 0; d < _n; d++) {
+                    _unscrambled[i * _n + scramble(i, d)] = d;
+                }
+                _inverted[i] = true;
+            }
+            return _unscrambled[i * _n + c];
+        }
+
+        /** The machine whose rotors are being tested. */
+        private Machine _machine;
+        /** Rotor offsets at each crib position. */
+        private final int[][] _offsets = new int[_length][_numRotors];
+        /** S_I(C) at I * _n + C, or -1 if not yet found. */
+        private final int[] _scrambled = new int[_length * _n];
+        /** S_I^-1(C) at I * _n + C, where _inverted[I]. */
+        private final int[] _unscrambled = new int[_length * _n];
+        /** Whether S_I^-1 has been tabulated, by I. */
+        private final boolean[] _inverted = new boolean[_length];
+        /** Whether s(A) = B follows, at A * _n + B. */
+        private final boolean[] _lit = new boolean[_n * _n];
+        /** Number of B for which s(A) = B follows, by A. */
+        private final int[] _count = new int[_n];
+        /** Conclusions whose consequences are yet to be drawn. */
+        private final int[] _queue = new int[_n * _n];
+        /** Values rejected for the test letter of each part of the menu. */
+        private final boolean[][] _rejected = new boolean[_tests.length][_n];
+    }
+
+    /** Size of the alphabet. */
+    private final int _n;
+    /** Length of the crib. */
+    private final int _length;
+    /** Number of rotor slots. */
+    private final int _numRotors;
+    /** True iff every reflector is its own inverse, so that S_I is too. */
+    private final boolean _involution;
+    /** The menu: for each letter A, the letters _to[A][E] joined to A at
+     *  crib positions _at[A][E], through S_I if _forward[A][E] and
+     *  S_I^-1 otherwise. */
+    private final int[][] _to, _at;
+    /** See _to. */
+    private final boolean[][] _forward;
+    /** Test letters; see tests(). */
+    private final int[] _tests;
+    /** Each worker's working storage. */
+    private final ThreadLocal<Scratch> _scratch;
+}
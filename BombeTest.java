@@ -0,0 +1,63 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the Bombe class.
+ *  @author Devyanshi Agarwal
+ */
+public class BombeTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(30);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** The rotors searched: some of the naval rotors. */
+    private static final ArrayList<Rotor> CANDIDATES =
+        navalRotors("B", "I", "II", "III");
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testStops() {
+        String[] rotors = { "B", "II", "I" };
+        String plain = "KEINEBESONDERENEREIGNISSEIMQUADRAT";
+        String plugboard = "(AM) (EK) (IS) (NT) (OR) (QX)";
+        String cipher = encrypt(2, rotors, "RT", "", plugboard, plain);
+        Bombe bombe = new Bombe(UPPER, 3, 2, CANDIDATES, plain, cipher, false);
+        assertEquals(UPPER.toInt('E'), bombe.tests()[0]);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<KeySearch.Key> found = bombe.search(pool, null);
+            ArrayList<String> lines = new ArrayList<>();
+            for (KeySearch.Key key : found) {
+                lines.add(key.toString());
+                String[] fields = key.toString().split(" ", 7);
+                assertEquals(cipher,
+                             encrypt(2, key.rotors(), key.setting(),
+                                     key.ring(),
+                                     fields.length > 6 ? fields[6] : "",
+                                     plain));
+            }
+            assertTrue(lines.toString(),
+                       lines.contains("* B II I RT AA " + plugboard));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = EnigmaException.class)
+    public void testSelfEncryption() {
+        new Bombe(UPPER, 3, 2, CANDIDATES, "ABC", "XBZ", false);
+    }
+}
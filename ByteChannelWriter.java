@@ -0,0 +1,58 @@
+package enigma;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/** A Writer of single-byte characters to a channel.  Each char is
+ *  narrowed directly into a direct buffer, with no charset encoding, so
+ *  it may only be given characters below 256.
+ *  @author Devyanshi Agarwal
+ */
+class ByteChannelWriter extends Writer {
+
+    /** A writer to CHANNEL, which it closes when it is closed. */
+    ByteChannelWriter(WritableByteChannel channel) {
+        _channel = channel;
+        _buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            if (!_buf.hasRemaining()) {
+                drain();
+            }
+            _buf.put((byte) cbuf[i]);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        drain();
+        _channel.close();
+    }
+
+    /** Write everything in _buf to the channel. */
+    private void drain() throws IOException {
+        _buf.flip();
+        while (_buf.hasRemaining()) {
+            _channel.write(_buf);
+        }
+        _buf.clear();
+    }
+
+    /** Bytes buffered before writing to the channel. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Where my output goes. */
+    private final WritableByteChannel _channel;
+    /** Output not yet written to _channel. */
+    private final ByteBuffer _buf;
+}
@@ -0,0 +1,331 @@
+package enigma;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/** A cache of parsed configuration files.  The parsed form of a
+ *  configuration (its alphabet, numbers of slots and pawls, and rotors
+ *  with their permutation tables and notches) is saved in a directory in
+ *  a compact binary form, under the SHA-256 hash of the configuration
+ *  file's contents, and read back with a single read.  Entries that are
+ *  missing, damaged, from another version, or describe a configuration
+ *  that ConfigParser would not produce are ignored, as are those in
+ *  directories or files that some other user owns or may write, since
+ *  anyone can compute the name of an entry.
+ *  @author Devyanshi Agarwal
+ */
+class ConfigCache {
+
+    /** A cache in directory DIR for the configuration file whose contents
+     *  are CONTENTS. */
+    ConfigCache(File dir, byte[] contents) {
+        _hash = sha256(contents);
+        StringBuilder name = new StringBuilder();
+        for (byte b : _hash) {
+            name.append(String.format("%02x", b));
+        }
+        _dir = dir;
+        _file = new File(dir, name.append(SUFFIX).toString());
+    }
+
+    /** Read my configuration from the cache, returning true iff it was
+     *  there and intact. */
+    boolean load() {
+        byte[] bytes;
+        try {
+            if (!trusted(_dir.toPath()) || !trusted(_file.toPath())) {
+                return false;
+            }
+            bytes = Files.readAllBytes(_file.toPath());
+        } catch (IOException excp) {
+            return false;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return false;
+            }
+            byte[] hash = new byte[_hash.length];
+            in.get(hash);
+            if (!Arrays.equals(hash, _hash)) {
+                return false;
+            }
+            String chars = getString(in);
+            if (!validAlphabet(chars)) {
+                return false;
+            }
+            Alphabet alphabet = new Alphabet(chars);
+            int n = alphabet.size();
+            int numRotors = in.getInt();
+            int numPawls = in.getInt();
+            int count = in.getInt();
+            if (count < 0 || count > in.remaining() || numRotors <= 0
+                || numPawls < 0 || numPawls > numRotors
+                || numRotors > count) {
+                return false;
+            }
+            ArrayList<Rotor> rotors = new ArrayList<>(count);
+            for (int k = 0; k < count; k++) {
+                byte type = in.get();
+                String name = getString(in);
+                if (!validName(name)) {
+                    return false;
+                }
+                String notches = type == MOVING ? getString(in) : null;
+                if (in.remaining() < n * Integer.BYTES) {
+                    return false;
+                }
+                int[] forward = new int[n];
+                in.asIntBuffer().get(forward);
+                in.position(in.position() + n * Integer.BYTES);
+                Permutation perm = new Permutation(forward, alphabet);
+                if (type == MOVING) {
+                    rotors.add(new MovingRotor(name, perm, notches));
+                } else if (type == FIXED) {
+                    rotors.add(new FixedRotor(name, perm));
+                } else if (type == REFLECTOR) {
+                    rotors.add(new Reflector(name, perm));
+                } else {
+                    return false;
+                }
+            }
+            if (in.hasRemaining()) {
+                return false;
+            }
+            _alphabet = alphabet;
+            _numRotors = numRotors;
+            _numPawls = numPawls;
+            _rotors = rotors;
+            return true;
+        } catch (BufferUnderflowException | EnigmaException excp) {
+            return false;
+        }
+    }
+
+    /** Save the configuration with alphabet ALPHABET, NUMROTORS slots,
+     *  NUMPAWLS pawls and rotors ROTORS in the cache.  Failure to save is
+     *  ignored. */
+    void save(Alphabet alphabet, int numRotors, int numPawls,
+              Collection<Rotor> rotors) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(_hash);
+            int n = alphabet.size();
+            StringBuilder chars = new StringBuilder(n);
+            for (int i = 0; i < n; i++) {
+                chars.append(alphabet.toChar(i));
+            }
+            putString(out, chars);
+            out.writeInt(numRotors);
+            out.writeInt(numPawls);
+            out.writeInt(rotors.size());
+            for (Rotor rotor : rotors) {
+                if (rotor.rotates()) {
+                    out.writeByte(MOVING);
+                    putString(out, rotor.name());
+                    StringBuilder notches = new StringBuilder();
+                    for (int i = 0; i < n; i++) {
+                        if (rotor.notchAt(i)) {
+                            notches.append(alphabet.toChar(i));
+                        }
+                    }
+                    putString(out, notches);
+                } else {
+                    out.writeByte(rotor.reflecting() ? REFLECTOR : FIXED);
+                    putString(out, rotor.name());
+                }
+                Permutation perm = rotor.permutation();
+                for (int i = 0; i < n; i++) {
+                    out.writeInt(perm.permute(i));
+                }
+            }
+        } catch (IOException excp) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Path dir = _dir.toPath();
+            if (posix()) {
+                Files.createDirectories(dir, PosixFilePermissions
+                                        .asFileAttribute(OWNER_ONLY));
+            } else {
+                Files.createDirectories(dir);
+            }
+            if (!trusted(dir)) {
+                return;
+            }
+            temp = Files.createTempFile(dir, "config", ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, _file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException excp) {
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    /** Return true iff PATH, which must exist, is not a symbolic link, is
+     *  owned by the current user, and, where the file system has POSIX
+     *  permissions, cannot be written by anyone else. */
+    private static boolean trusted(Path path) throws IOException {
+        if (Files.isSymbolicLink(path)) {
+            return false;
+        }
+        UserPrincipal owner = Files.getOwner(path, LinkOption.NOFOLLOW_LINKS);
+        UserPrincipal user = path.getFileSystem()
+            .getUserPrincipalLookupService()
+            .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!owner.equals(user)) {
+            return false;
+        }
+        if (posix()) {
+            Set<PosixFilePermission> perms =
+                Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+            return !perms.contains(PosixFilePermission.GROUP_WRITE)
+                && !perms.contains(PosixFilePermission.OTHERS_WRITE);
+        }
+        return true;
+    }
+
+    /** Return true iff the default file system has POSIX permissions. */
+    private static boolean posix() {
+        return FileSystems.getDefault()
+            .supportedFileAttributeViews().contains("posix");
+    }
+
+    /** Return true iff CHARS could be the alphabet of a configuration
+     *  file: a non-empty token without '(', ')' or '*'. */
+    private static boolean validAlphabet(String chars) {
+        return validName(chars) && chars.indexOf('*') < 0;
+    }
+
+    /** Return true iff NAME could be a token of a configuration file
+     *  other than a cycle: non-empty, without whitespace or
+     *  parentheses. */
+    private static boolean validName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Return the alphabet loaded. */
+    Alphabet alphabet() {
+        return _alphabet;
+    }
+
+    /** Return the number of rotor slots loaded. */
+    int numRotors() {
+        return _numRotors;
+    }
+
+    /** Return the number of pawls loaded. */
+    int numPawls() {
+        return _numPawls;
+    }
+
+    /** Return the rotors loaded. */
+    ArrayList<Rotor> rotors() {
+        return _rotors;
+    }
+
+    /** Return the file in which my configuration is cached. */
+    File file() {
+        return _file;
+    }
+
+    /** Return the SHA-256 digest of CONTENTS and the name of the default
+     *  character set, with which CONTENTS are decoded. */
+    private static byte[] sha256(byte[] contents) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Charset.defaultCharset().name()
+                          .getBytes(StandardCharsets.UTF_8));
+            return digest.digest(contents);
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalStateException(excp);
+        }
+    }
+
+    /** Write the length of S and its characters to OUT. */
+    private static void putString(DataOutputStream out, CharSequence s)
+        throws IOException {
+        out.writeInt(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            out.writeChar(s.charAt(i));
+        }
+    }
+
+    /** Read a string written by putString from IN. */
+    private static String getString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0 || len > in.remaining() / Character.BYTES) {
+            throw new BufferUnderflowException();
+        }
+        char[] chars = new char[len];
+        in.asCharBuffer().get(chars);
+        in.position(in.position() + len * Character.BYTES);
+        return new String(chars);
+    }
+
+    /** First word of every cache file. */
+    private static final int MAGIC = 0x454e4743;
+    /** Version of the cache file format. */
+    private static final int VERSION = 1;
+    /** Suffix of cache file names. */
+    private static final String SUFFIX = ".enigma";
+    /** Rotor types in cache files. */
+    private static final byte MOVING = 'M', FIXED = 'N', REFLECTOR = 'R';
+    /** Permissions of the cache directory, where they are supported. */
+    private static final Set<PosixFilePermission> OWNER_ONLY =
+        EnumSet.of(PosixFilePermission.OWNER_READ,
+                   PosixFilePermission.OWNER_WRITE,
+                   PosixFilePermission.OWNER_EXECUTE);
+
+    /** Hash of the configuration's text. */
+    private final byte[] _hash;
+    /** Directory holding the cache. */
+    private final File _dir;
+    /** File holding this configuration. */
+    private final File _file;
+
+    /** The alphabet loaded. */
+    private Alphabet _alphabet;
+    /** The number of rotor slots loaded. */
+    private int _numRotors;
+    /** The number of pawls loaded. */
+    private int _numPawls;
+    /** The rotors loaded. */
+    private ArrayList<Rotor> _rotors;
+}
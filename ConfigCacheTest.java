@@ -0,0 +1,234 @@
+package enigma;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+/** The suite of all JUnit tests for the ConfigCache class.
+ *  @author Devyanshi Agarwal
+ */
+public class ConfigCacheTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** A configuration file. */
+    private static final String CONFIG =
+        "ABCDEFGH\n4 2\n"
+        + " I MA (ABC) (DEFGH)\n"
+        + " II MEH (AH) (BG) (CF) (DE)\n"
+        + " III MC (ABCDEFGH)\n"
+        + " F N (AC)\n"
+        + " R R (AB) (CD) (EF) (GH)\n";
+
+    /** Another configuration file. */
+    private static final String OTHER = CONFIG.replace("(AC)", "(AD)");
+
+    /** A test body, run with a cache directory. */
+    private interface Body {
+        /** Run the test. */
+        void run() throws IOException;
+    }
+
+    /** Run BODY with _dir an empty cache directory, removed afterwards. */
+    private void withDirectory(Body body) throws IOException {
+        _dir = Files.createTempDirectory("enigma-cache").toFile();
+        try {
+            body.run();
+        } finally {
+            for (File f : _dir.listFiles()) {
+                f.delete();
+            }
+            _dir.delete();
+        }
+    }
+
+    /** Return the contents of configuration file TEXT. */
+    private static byte[] bytes(String text) {
+        return text.getBytes(Charset.defaultCharset());
+    }
+
+    /** Return a parser that has parsed TEXT. */
+    private static ConfigParser parse(String text) {
+        ConfigParser parser = new ConfigParser("test.conf",
+                                               text.toCharArray(),
+                                               text.length());
+        parser.parse();
+        return parser;
+    }
+
+    /** Save the parsed form of TEXT in my cache, returning the cache. */
+    private ConfigCache save(String text) {
+        ConfigParser parser = parse(text);
+        ConfigCache cache = new ConfigCache(_dir, bytes(text));
+        cache.save(parser.alphabet(), parser.numRotors(), parser.numPawls(),
+                   parser.rotors());
+        assertTrue(cache.file().exists());
+        return cache;
+    }
+
+    /** Check that the simulator, reading configuration file TEXT with my
+     *  cache, gets the configuration ConfigParser reads from TEXT. */
+    private void checkFallback(String text) throws IOException {
+        File config = new File(_dir, "test.conf");
+        Files.write(config.toPath(), bytes(text));
+        try (Main main = new Main(new String[] {
+                    "--cache=" + _dir.getPath(), config.getPath() })) {
+            Machine m = main.readConfig();
+            assertEquals(parse(text).numRotors(), m.numRotors());
+            assertEquals(parse(text).numPawls(), m.numPawls());
+        }
+        config.delete();
+        assertTrue(new ConfigCache(_dir, bytes(text)).load());
+    }
+
+    /** The cache directory. */
+    private File _dir;
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        withDirectory(this::testSaveLoadBody);
+    }
+
+    /** The body of testSaveLoad. */
+    private void testSaveLoadBody() throws IOException {
+        save(CONFIG);
+        ConfigCache cache = new ConfigCache(_dir, bytes(CONFIG));
+        assertTrue(cache.load());
+        ConfigParser parser = parse(CONFIG);
+        assertEquals(parser.alphabet().size(), cache.alphabet().size());
+        assertEquals(parser.numRotors(), cache.numRotors());
+        assertEquals(parser.numPawls(), cache.numPawls());
+        ArrayList<Rotor> expected = parser.rotors(), loaded = cache.rotors();
+        assertEquals(expected.size(), loaded.size());
+        for (int k = 0; k < expected.size(); k++) {
+            Rotor a = expected.get(k), b = loaded.get(k);
+            assertEquals(a.name(), b.name());
+            assertEquals(a.rotates(), b.rotates());
+            assertEquals(a.reflecting(), b.reflecting());
+            for (int p = 0; p < a.size(); p++) {
+                assertEquals(a.notchAt(p), b.notchAt(p));
+                assertEquals(a.permutation().permute(p),
+                             b.permutation().permute(p));
+            }
+        }
+    }
+
+    @Test
+    public void testAllPawls() throws IOException {
+        withDirectory(this::testAllPawlsBody);
+    }
+
+    /** The body of testAllPawls. */
+    private void testAllPawlsBody() throws IOException {
+        String config = CONFIG.replace("\n4 2\n", "\n4 4\n");
+        save(config);
+        ConfigCache cache = new ConfigCache(_dir, bytes(config));
+        assertTrue(cache.load());
+        assertEquals(4, cache.numRotors());
+        assertEquals(4, cache.numPawls());
+    }
+
+    @Test
+    public void testHashMismatch() throws IOException {
+        withDirectory(this::testHashMismatchBody);
+    }
+
+    /** The body of testHashMismatch. */
+    private void testHashMismatchBody() throws IOException {
+        ConfigCache saved = save(CONFIG);
+        ConfigCache other = new ConfigCache(_dir, bytes(OTHER));
+        assertFalse(other.load());
+        Files.copy(saved.file().toPath(), other.file().toPath());
+        assertFalse(other.load());
+        checkFallback(OTHER);
+    }
+
+    @Test
+    public void testCorrupted() throws IOException {
+        withDirectory(this::testCorruptedBody);
+    }
+
+    /** The body of testCorrupted. */
+    private void testCorruptedBody() throws IOException {
+        ConfigCache cache = save(CONFIG);
+        byte[] good = Files.readAllBytes(cache.file().toPath());
+
+        Files.write(cache.file().toPath(),
+                    Arrays.copyOf(good, good.length - 3));
+        assertFalse(cache.load());
+        checkFallback(CONFIG);
+
+        /* Offset of the number of slots: after the magic number, version,
+         * hash, and alphabet. */
+        int rotors = 4 + 4 + 32 + 4 + 2 * "ABCDEFGH".length();
+        for (int[] change : new int[][] {
+                { 3, 2 }, { 5, 4 }, { 0, 6 }, { -1, 2 }, { 0, 0 } }) {
+            byte[] bad = good.clone();
+            ByteBuffer.wrap(bad).putInt(rotors + 4, change[0]);
+            ByteBuffer.wrap(bad).putInt(rotors, change[1]);
+            Files.write(cache.file().toPath(), bad);
+            assertFalse(cache.load());
+            checkFallback(CONFIG);
+        }
+
+        byte[] bad = good.clone();
+        ByteBuffer.wrap(bad).putChar(4 + 4 + 32 + 4 + 2, '(');
+        Files.write(cache.file().toPath(), bad);
+        assertFalse(cache.load());
+        checkFallback(CONFIG);
+    }
+
+    @Test
+    public void testUntrustedDirectory() throws IOException {
+        withDirectory(this::testUntrustedDirectoryBody);
+    }
+
+    /** The body of testUntrustedDirectory. */
+    private void testUntrustedDirectoryBody() throws IOException {
+        if (!FileSystems.getDefault().supportedFileAttributeViews()
+            .contains("posix")) {
+            return;
+        }
+        ConfigCache cache = save(CONFIG);
+        Files.setPosixFilePermissions(_dir.toPath(),
+                                      PosixFilePermissions
+                                      .fromString("rwxrwxrwx"));
+        assertFalse(cache.load());
+        Files.setPosixFilePermissions(_dir.toPath(),
+                                      PosixFilePermissions
+                                      .fromString("rwx------"));
+        assertTrue(cache.load());
+        Files.setPosixFilePermissions(cache.file().toPath(),
+                                      PosixFilePermissions
+                                      .fromString("rw-rw-rw-"));
+        assertFalse(cache.load());
+
+        File link = new File(_dir, "link");
+        Files.move(cache.file().toPath(), link.toPath(),
+                   StandardCopyOption.ATOMIC_MOVE);
+        Files.setPosixFilePermissions(link.toPath(),
+                                      PosixFilePermissions
+                                      .fromString("rw-------"));
+        Files.createSymbolicLink(cache.file().toPath(), link.toPath());
+        assertFalse(cache.load());
+    }
+
+}
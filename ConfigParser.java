@@ -0,0 +1,243 @@
+package enigma;
+
+import java.util.ArrayList;
+
+import static enigma.EnigmaException.*;
+
+/** A parser for enigma configuration files.  The text is read once,
+ *  token by token, directly from a character array; errors are reported
+ *  with the line and column at which they were found.
+ *  @author Devyanshi Agarwal
+ */
+class ConfigParser {
+
+    /** A parser for the first LEN characters of TEXT, which came from the
+     *  source named SOURCE. */
+    ConfigParser(String source, char[] text, int len) {
+        _source = source;
+        _text = text;
+        _len = len;
+        _line = 1;
+    }
+
+    /** Parse my text, which must consist of an alphabet, the numbers of
+     *  rotor slots and pawls, and one or more rotor descriptions, each a
+     *  name, a type (M followed by notches, N, or R) and zero or more
+     *  cycles. */
+    void parse() {
+        if (!next()) {
+            throw errorAtToken("configuration file is empty");
+        }
+        _alphabet = readAlphabet();
+        _numRotors = number("number of rotor slots");
+        if (_numRotors <= 0) {
+            throw errorAtToken("Num rotors cannot be <= 0");
+        }
+        _numPawls = number("number of pawls");
+        if (_numPawls < 0 || _numPawls > _numRotors) {
+            throw errorAtToken("Num pawls must be between 0 and %d",
+                               _numRotors);
+        }
+        _rotors = new ArrayList<>();
+        if (!next()) {
+            throw errorAtToken("Incorrect config: no rotors");
+        }
+        boolean more = true;
+        while (more) {
+            more = rotor();
+        }
+    }
+
+    /** Return the alphabet I read. */
+    Alphabet alphabet() {
+        return _alphabet;
+    }
+
+    /** Return the number of rotor slots I read. */
+    int numRotors() {
+        return _numRotors;
+    }
+
+    /** Return the number of pawls I read. */
+    int numPawls() {
+        return _numPawls;
+    }
+
+    /** Return the rotors I read. */
+    ArrayList<Rotor> rotors() {
+        return _rotors;
+    }
+
+    /** Return the alphabet described by the current token. */
+    private Alphabet readAlphabet() {
+        for (int i = _start; i < _end; i++) {
+            char c = _text[i];
+            if (c == '(' || c == ')' || c == '*') {
+                throw errorAt(_tokenLine, _tokenColumn + i - _start,
+                              "Alphabet cannot contain '(', ')' or '*'");
+            }
+        }
+        try {
+            return new Alphabet(token());
+        } catch (EnigmaException excp) {
+            throw errorAtToken("%s", excp.getMessage());
+        }
+    }
+
+    /** Return the non-negative integer in the next token, which is
+     *  described by WHAT in error messages. */
+    private int number(String what) {
+        if (!next()) {
+            throw errorAtToken("%s missing", what);
+        }
+        if (_end - _start > MAX_DIGITS) {
+            throw errorAtToken("%s too large", what);
+        }
+        int n = 0;
+        for (int i = _start; i < _end; i++) {
+            char c = _text[i];
+            if (c < '0' || c > '9') {
+                throw errorAtToken("%s expected", what);
+            }
+            n = n * 10 + c - '0';
+        }
+        return n;
+    }
+
+    /** Read the rotor whose name is the current token and add it to
+     *  _rotors.  Returns true iff it is followed by another token, which
+     *  is then current. */
+    private boolean rotor() {
+        if (bracketed()) {
+            throw errorAtToken("rotor name expected");
+        }
+        String name = token();
+        int line = _tokenLine, column = _tokenColumn;
+        if (!next()) {
+            throw errorAt(line, column, "no type for rotor %s", name);
+        }
+        char type = _text[_start];
+        int typeLine = _tokenLine, typeColumn = _tokenColumn;
+        String notches = null;
+        if (type == 'M') {
+            if (_end - _start == 1) {
+                throw errorAtToken("Moving rotor %s has no notches", name);
+            }
+            notches = new String(_text, _start + 1, _end - _start - 1);
+        } else if (type != 'N' && type != 'R') {
+            throw errorAtToken("wrong rotor type");
+        }
+        _cycles.setLength(0);
+        boolean more;
+        while ((more = next()) && bracketed()) {
+            if (_text[_start] != '(' || _text[_end - 1] != ')') {
+                throw errorAtToken("Incorrect cycle type");
+            }
+            _cycles.append(_text, _start, _end - _start);
+        }
+        Permutation perm;
+        try {
+            perm = new Permutation(_cycles.toString(), _alphabet);
+        } catch (EnigmaException excp) {
+            throw errorAt(line, column, "rotor %s: %s", name,
+                          excp.getMessage());
+        }
+        try {
+            if (type == 'M') {
+                _rotors.add(new MovingRotor(name, perm, notches));
+            } else if (type == 'N') {
+                _rotors.add(new FixedRotor(name, perm));
+            } else {
+                _rotors.add(new Reflector(name, perm));
+            }
+        } catch (EnigmaException excp) {
+            throw errorAt(typeLine, typeColumn, "rotor %s: %s", name,
+                          excp.getMessage());
+        }
+        return more;
+    }
+
+    /** Advance to the next whitespace-delimited token, returning false
+     *  if there is none. */
+    private boolean next() {
+        int p = _end;
+        while (p < _len && Character.isWhitespace(_text[p])) {
+            if (_text[p] == '\n') {
+                _line += 1;
+                _lineStart = p + 1;
+            }
+            p += 1;
+        }
+        _tokenLine = _line;
+        _tokenColumn = p - _lineStart + 1;
+        if (p == _len) {
+            _start = _end = p;
+            return false;
+        }
+        _start = p;
+        while (p < _len && !Character.isWhitespace(_text[p])) {
+            p += 1;
+        }
+        _end = p;
+        return true;
+    }
+
+    /** Return the current token. */
+    private String token() {
+        return new String(_text, _start, _end - _start);
+    }
+
+    /** Return true iff the current token contains a parenthesis. */
+    private boolean bracketed() {
+        for (int i = _start; i < _end; i++) {
+            if (_text[i] == '(' || _text[i] == ')') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Return an exception reporting the error MSGFORMAT, formatted with
+     *  ARGS as for String.format, at the current token. */
+    private EnigmaException errorAtToken(String msgFormat, Object... args) {
+        return errorAt(_tokenLine, _tokenColumn, msgFormat, args);
+    }
+
+    /** Return an exception reporting the error MSGFORMAT, formatted with
+     *  ARGS as for String.format, at LINE and COLUMN. */
+    private EnigmaException errorAt(int line, int column, String msgFormat,
+                                    Object... args) {
+        return error("%s:%d:%d: %s", _source, line, column,
+                     String.format(msgFormat, args));
+    }
+
+    /** Most digits allowed in a number, so that it fits in an int. */
+    private static final int MAX_DIGITS = 9;
+
+    /** Name of the source of my text, for error messages. */
+    private final String _source;
+    /** The text being parsed. */
+    private final char[] _text;
+    /** Length of the text in _text. */
+    private final int _len;
+    /** Line number at the current position. */
+    private int _line;
+    /** Index of the start of the current line. */
+    private int _lineStart;
+    /** Bounds of the current token in _text. */
+    private int _start, _end;
+    /** Line and column of the current token (or of the end of the text,
+     *  if there is none). */
+    private int _tokenLine, _tokenColumn;
+    /** Cycles of the rotor being read. */
+    private final StringBuilder _cycles = new StringBuilder();
+
+    /** The alphabet read. */
+    private Alphabet _alphabet;
+    /** The number of rotor slots read. */
+    private int _numRotors;
+    /** The number of pawls read. */
+    private int _numPawls;
+    /** The rotors read. */
+    private ArrayList<Rotor> _rotors;
+}
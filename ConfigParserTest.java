@@ -0,0 +1,78 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+/** The suite of all JUnit tests for the ConfigParser class.
+ *  @author Devyanshi Agarwal
+ */
+public class ConfigParserTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** Return a parser that has parsed TEXT. */
+    private ConfigParser parse(String text) {
+        ConfigParser parser = new ConfigParser("test.conf",
+                                               text.toCharArray(),
+                                               text.length());
+        parser.parse();
+        return parser;
+    }
+
+    /** Check that parsing TEXT fails with an error at LINE and COLUMN. */
+    private void checkError(String text, int line, int column) {
+        try {
+            parse(text);
+            fail("no error for " + text);
+        } catch (EnigmaException excp) {
+            assertTrue(excp.getMessage(), excp.getMessage().startsWith(
+                String.format("test.conf:%d:%d: ", line, column)));
+        }
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testParse() {
+        ConfigParser parser = parse("ABCD\n 3 1\n"
+                                    + " I MAC (ABC) (D)\n"
+                                    + "\tII N\r\n"
+                                    + " R R (AB)\n   (CD)\n");
+        assertEquals(4, parser.alphabet().size());
+        assertEquals(3, parser.numRotors());
+        assertEquals(1, parser.numPawls());
+        assertEquals(3, parser.rotors().size());
+        Rotor i = parser.rotors().get(0);
+        assertEquals("I", i.name());
+        assertTrue(i.rotates());
+        assertTrue(i.notchAt(0) && !i.notchAt(1) && i.notchAt(2));
+        assertEquals(1, i.permutation().permute(0));
+        assertEquals(3, i.permutation().permute(3));
+        assertFalse(parser.rotors().get(1).rotates());
+        Rotor r = parser.rotors().get(2);
+        assertTrue(r.reflecting());
+        assertEquals(2, r.permutation().permute(3));
+    }
+
+    @Test
+    public void testErrors() {
+        checkError("", 1, 1);
+        checkError("AB*C 3 1 I MA", 1, 3);
+        checkError("ABCD\n 3 x", 2, 4);
+        checkError("ABCD\n 0 0", 2, 2);
+        checkError("ABCD\n 3 4", 2, 4);
+        checkError("ABCD\n 3 1\n", 3, 1);
+        checkError("ABCD\n 3 1\n I M (AB)", 3, 4);
+        checkError("ABCD\n 3 1\n I X (AB)", 3, 4);
+        checkError("ABCD\n 3 1\n I MA (AB) (C", 3, 12);
+        checkError("ABCD\n 3 1\n I MA (AB)\n II", 4, 2);
+        checkError("ABCD\n 3 1\n I MA (AE)", 3, 2);
+        checkError("ABCD\n 3 1\n I ME (AB)", 3, 4);
+    }
+}
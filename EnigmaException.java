@@ -23,4 +23,7 @@ class EnigmaException extends RuntimeException {
         return new enigma.EnigmaException(String.format(msgFormat, arguments));
     }
 
+    /** Version of my serialized form. */
+    private static final long serialVersionUID = 1L;
+
 }
@@ -12,4 +12,9 @@ class FixedRotor extends Rotor {
     FixedRotor(String name, Permutation perm) {
         super(name, perm);
     }
+
+    @Override
+    Rotor unset() {
+        return new FixedRotor(name(), permutation());
+    }
 }
@@ -0,0 +1,105 @@
+package enigma;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/** Writes message text in groups of five letters, separated by single
+ *  spaces, through a buffer of its own.  Spaces in the text are dropped,
+ *  so only the letters determine where groups fall.
+ *  @author Devyanshi Agarwal
+ */
+class GroupWriter {
+
+    /** A GroupWriter sending its output to OUT.  If CONTINUOUS, group
+     *  alignment carries across line boundaries and is only reset by
+     *  endMessage(); otherwise every line starts a fresh group. */
+    GroupWriter(Writer out, boolean continuous) {
+        _out = out;
+        _continuous = continuous;
+        _buf = new char[BUFFER_SIZE];
+    }
+
+    /** Write the letters among the LEN characters of MSG starting at
+     *  OFF, continuing the current group. */
+    void write(char[] msg, int off, int len) throws IOException {
+        int end = off + len;
+        int pos = _pos;
+        int count = _count;
+        for (int i = off; i < end; i++) {
+            char c = msg[i];
+            if (c == ' ') {
+                continue;
+            }
+            if (pos >= _buf.length - 1) {
+                _pos = pos;
+                drain();
+                pos = 0;
+            }
+            if (count == GROUP_SIZE) {
+                if (!_lineStart) {
+                    _buf[pos++] = ' ';
+                }
+                count = 0;
+            }
+            _buf[pos++] = c;
+            count += 1;
+            _lineStart = false;
+        }
+        _pos = pos;
+        _count = count;
+    }
+
+    /** End the current output line. */
+    void endLine() throws IOException {
+        if (_pos + LINE_SEPARATOR.length() > _buf.length) {
+            drain();
+        }
+        LINE_SEPARATOR.getChars(0, LINE_SEPARATOR.length(), _buf, _pos);
+        _pos += LINE_SEPARATOR.length();
+        _lineStart = true;
+        if (!_continuous) {
+            _count = 0;
+        }
+    }
+
+    /** End the current message, so that the next letter starts a new
+     *  group. */
+    void endMessage() {
+        _count = 0;
+    }
+
+    /** Write out everything buffered so far and flush the underlying
+     *  writer. */
+    void flush() throws IOException {
+        drain();
+        _out.flush();
+    }
+
+    /** Hand the buffered characters to the underlying writer. */
+    private void drain() throws IOException {
+        _out.write(_buf, 0, _pos);
+        _pos = 0;
+    }
+
+    /** Letters in a full group. */
+    static final int GROUP_SIZE = 5;
+
+    /** Characters buffered before writing to the underlying writer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Written at the end of each output line. */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /** Destination of my output. */
+    private final Writer _out;
+    /** True iff groups continue across lines. */
+    private final boolean _continuous;
+    /** Output not yet handed to _out. */
+    private final char[] _buf;
+    /** Number of characters in _buf. */
+    private int _pos;
+    /** Letters written in the current group. */
+    private int _count;
+    /** True iff nothing has been written on the current line. */
+    private boolean _lineStart = true;
+}
@@ -0,0 +1,132 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/** The suite of all JUnit tests for the GroupWriter class.
+ *  @author Devyanshi Agarwal
+ */
+public class GroupWriterTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** Written at the end of each output line. */
+    private static final String NL = System.lineSeparator();
+
+    /** Write TEXT to OUT, as one call. */
+    private static void write(GroupWriter out, String text)
+        throws IOException {
+        out.write(text.toCharArray(), 0, text.length());
+    }
+
+    /** Return the letters of TEXT, a line of output, in groups of five,
+     *  as GroupWriter would write them from the start of a message. */
+    private static String grouped(String text) {
+        StringBuilder result = new StringBuilder();
+        int count = 0;
+        for (char c : text.toCharArray()) {
+            if (c == ' ') {
+                continue;
+            }
+            if (count > 0 && count % GroupWriter.GROUP_SIZE == 0) {
+                result.append(' ');
+            }
+            result.append(c);
+            count += 1;
+        }
+        return result.toString();
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testGroups() throws IOException {
+        StringWriter sink = new StringWriter();
+        GroupWriter out = new GroupWriter(sink, false);
+        write(out, "FROM HIS ");
+        write(out, "SHOULDER");
+        out.endLine();
+        write(out, "HIAWATHA");
+        out.endLine();
+        out.endLine();
+        write(out, "ABCDE");
+        out.endLine();
+        out.flush();
+        assertEquals("FROMH ISSHO ULDER" + NL + "HIAWA THA" + NL + NL
+                     + "ABCDE" + NL, sink.toString());
+    }
+
+    @Test
+    public void testContinuous() throws IOException {
+        StringWriter sink = new StringWriter();
+        GroupWriter out = new GroupWriter(sink, true);
+        write(out, "FROM HIS SHOULDE");
+        out.endLine();
+        write(out, "R HIAWATHA");
+        out.endLine();
+        out.endMessage();
+        write(out, "TOOK THE");
+        out.endLine();
+        out.flush();
+        assertEquals("FROMH ISSHO ULDE" + NL + "R HIAWA THA" + NL
+                     + "TOOKT HE" + NL, sink.toString());
+    }
+
+    @Test
+    public void testNothingBufferedUntilFlush() throws IOException {
+        StringWriter sink = new StringWriter();
+        GroupWriter out = new GroupWriter(sink, false);
+        write(out, "HELLO WORLD");
+        out.endLine();
+        assertEquals("", sink.toString());
+        out.flush();
+        assertEquals("HELLO WORLD" + NL, sink.toString());
+    }
+
+    @Test
+    public void testAcrossBuffers() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int k = 0; text.length() < 300000; k++) {
+            text.append((char) ('A' + k % 26));
+            if (k % 11 == 0) {
+                text.append(' ');
+            }
+        }
+        String expected = grouped(text.toString());
+        for (int piece : new int[] { 1, 7, 4096, 65535, 65536, 300000 }) {
+            StringWriter sink = new StringWriter();
+            GroupWriter out = new GroupWriter(sink, false);
+            char[] chars = text.toString().toCharArray();
+            for (int i = 0; i < chars.length; i += piece) {
+                out.write(chars, i, Math.min(piece, chars.length - i));
+            }
+            out.endLine();
+            out.flush();
+            assertEquals("piece " + piece, expected + NL, sink.toString());
+        }
+    }
+
+    @Test
+    public void testLinesAcrossBuffers() throws IOException {
+        StringWriter sink = new StringWriter();
+        GroupWriter out = new GroupWriter(sink, false);
+        StringBuilder expected = new StringBuilder();
+        for (int k = 0; k < 30000; k++) {
+            String line = "ABCDEFG".substring(0, k % 8);
+            write(out, line);
+            out.endLine();
+            expected.append(grouped(line)).append(NL);
+        }
+        out.flush();
+        assertEquals(expected.toString(), sink.toString());
+    }
+}
@@ -0,0 +1,718 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import static enigma.EnigmaException.*;
+
+/** A ciphertext-only search for the key of a message, by statistics of
+ *  its decryptions.  First, every rotor order and start setting is tried
+ *  with no plugboard and ring settings at 0, and scored by the index of
+ *  coincidence of the decryption, which is raised above that of random
+ *  text by the letters that the plugboard leaves alone.  Then, from each
+ *  of the best of these, a hill climb improves the ring settings, start
+ *  settings and plugboard one slot or one plugboard pair at a time,
+ *  keeping each change that raises the score, first by index of
+ *  coincidence and then by N-gram log-likelihood, until none does.
+ *
+ *  Both stages are divided among the workers of a fork/join pool.  Each
+ *  worker has its own compiled machine and working storage, so that a
+ *  decryption is scored without allocating; while the plugboard is being
+ *  improved, the rotors' permutation at each position of the message is
+ *  tabulated, so that each decryption costs a few array lookups per
+ *  character.
+ *  @author Devyanshi Agarwal
+ */
+class HillClimb {
+
+    /** Search for the key of a message, as specified by ARGS:
+     *      [--rings] [--threads=N] [--starts=N] [--pairs=N] [--n=N]
+     *      CONFIG CORPUS CIPHERTEXT
+     *  CONFIG names a configuration file, CORPUS a file of text in the
+     *  message's language, from which N-grams of length N (default 3) are
+     *  counted, and CIPHERTEXT a file containing the message.  Hill
+     *  climbs are started from the best N rotor settings (default 100),
+     *  and plugboards have at most N pairs (default 10).  The best keys
+     *  found are printed as settings lines, each followed by its score
+     *  and decryption. */
+    public static void main(String... args) {
+        try {
+            boolean rings = false;
+            int threads = Runtime.getRuntime().availableProcessors();
+            int starts = DEFAULT_STARTS, pairs = DEFAULT_PAIRS;
+            int n = DEFAULT_N;
+            ArrayList<String> rest = new ArrayList<>();
+            for (String arg : args) {
+                if (arg.equals("--rings")) {
+                    rings = true;
+                } else if (arg.startsWith("--threads=")) {
+                    threads = KeySearch.option(arg, "--threads=", 1);
+                } else if (arg.startsWith("--starts=")) {
+                    starts = KeySearch.option(arg, "--starts=", 1);
+                } else if (arg.startsWith("--pairs=")) {
+                    pairs = KeySearch.option(arg, "--pairs=", 0);
+                } else if (arg.startsWith("--n=")) {
+                    n = KeySearch.option(arg, "--n=", 1);
+                } else if (arg.startsWith("--")) {
+                    throw error("unknown option %s", arg);
+                } else {
+                    rest.add(arg);
+                }
+            }
+            if (rest.size() != 3) {
+                throw error("usage: HillClimb [--rings] [--threads=N] "
+                            + "[--starts=N] [--pairs=N] [--n=N] "
+                            + "CONFIG CORPUS CIPHERTEXT");
+            }
+            char[] text = read(rest.get(0)).toCharArray();
+            ConfigParser config = new ConfigParser(rest.get(0), text,
+                                                   text.length);
+            config.parse();
+            NGrams ngrams = NGrams.read(config.alphabet(), n, rest.get(1));
+            HillClimb climb =
+                new HillClimb(config.alphabet(), config.numRotors(),
+                              config.numPawls(), config.rotors(),
+                              read(rest.get(2)), ngrams, pairs, rings);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long start = System.nanoTime();
+                List<Result> results = climb.search(pool, starts);
+                double seconds = (System.nanoTime() - start) * 1e-9;
+                for (int k = 0; k < Math.min(SHOWN, results.size()); k++) {
+                    Result result = results.get(k);
+                    System.out.println(result.key());
+                    System.out.printf("  %.2f %s%n", result.score(),
+                                      result.plaintext());
+                }
+                System.err.printf("%d decryptions in %.1f s, "
+                                  + "%.0f decryptions/s%n",
+                                  climb.decryptions(), seconds,
+                                  climb.decryptions() / seconds);
+            } finally {
+                pool.shutdown();
+            }
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /** The outcome of one hill climb. */
+    static final class Result {
+
+        /** A result with key KEY, whose decryption PLAINTEXT has score
+         *  SCORE. */
+        Result(KeySearch.Key key, double score, String plaintext) {
+            _key = key;
+            _score = score;
+            _plaintext = plaintext;
+        }
+
+        /** Return my key. */
+        KeySearch.Key key() {
+            return _key;
+        }
+
+        /** Return the score of my decryption: its N-gram log-likelihood,
+         *  or its index of coincidence if there are no N-grams. */
+        double score() {
+            return _score;
+        }
+
+        /** Return the decryption of the message with my key. */
+        String plaintext() {
+            return _plaintext;
+        }
+
+        /** The key. */
+        private final KeySearch.Key _key;
+        /** The score of its decryption. */
+        private final double _score;
+        /** Its decryption. */
+        private final String _plaintext;
+    }
+
+    /** A search among ROTORS, for a machine over ALPHABET with NUMROTORS
+     *  slots and PAWLS pawls, for the key of CIPHERTEXT, whose characters
+     *  other than white space must be in ALPHABET, scored by NGRAMS (by
+     *  index of coincidence alone if it is null), with plugboards of at
+     *  most PAIRS pairs.  Ring settings of the moving rotors are searched
+     *  iff RINGS. */
+    HillClimb(Alphabet alphabet, int numRotors, int pawls,
+              Collection<Rotor> rotors, String ciphertext, NGrams ngrams,
+              int pairs, boolean rings) {
+        if (pawls >= numRotors) {
+            throw error("no slot for a reflector");
+        }
+        _alphabet = alphabet;
+        _numRotors = numRotors;
+        _pawls = pawls;
+        _cipher = indices(ciphertext);
+        if (_cipher.length < 2) {
+            throw error("ciphertext too short");
+        }
+        _ngrams = ngrams;
+        _pairs = Math.min(pairs, alphabet.size() / 2);
+        _rings = rings;
+        _orders = KeySearch.orders(numRotors, pawls, rotors);
+        _perOrder = KeySearch.settings(alphabet, numRotors - 1);
+        _total = KeySearch.total(_perOrder, _orders.size());
+        _template = new Machine(alphabet, numRotors, pawls, rotors);
+        _template.setCompiled(true);
+        if (!_template.compiled()) {
+            throw error("alphabet of %d characters is too large to search",
+                        alphabet.size());
+        }
+    }
+
+    /** Score every rotor order and start setting, and hill-climb from the
+     *  best STARTS of them, on the workers of POOL.  Returns the results
+     *  of the climbs, best first. */
+    List<Result> search(ForkJoinPool pool, int starts) {
+        _results.clear();
+        _decryptions.reset();
+        long[] best = pool.invoke(new Scan(0, _total, starts)).candidates();
+        pool.invoke(new Climbs(best, 0, best.length));
+        ArrayList<Result> results = new ArrayList<>(_results);
+        results.sort(Comparator.comparingDouble(Result::score).reversed());
+        return results;
+    }
+
+    /** Return the number of rotor orders and start settings. */
+    long total() {
+        return _total;
+    }
+
+    /** Return the number of decryptions scored by the last search. */
+    long decryptions() {
+        return _decryptions.sum();
+    }
+
+    /** Return the index of coincidence of the first LENGTH characters of
+     *  TEXT, alphabet indices less than COUNTS.length, using COUNTS as
+     *  working storage: the chance that two of them chosen at random are
+     *  the same, times the size of the alphabet. */
+    static double indexOfCoincidence(int[] text, int length, int[] counts) {
+        if (length < 2) {
+            return 0;
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < length; i++) {
+            counts[text[i]] += 1;
+        }
+        long same = 0;
+        for (int count : counts) {
+            same += (long) count * (count - 1);
+        }
+        return (double) same * counts.length
+            / ((double) length * (length - 1));
+    }
+
+    /** The candidates with the highest scores among those offered, up to
+     *  a fixed number of them. */
+    private static class Top {
+
+        /** A Top holding up to SIZE candidates. */
+        Top(int size) {
+            _scores = new double[size];
+            _candidates = new long[size];
+        }
+
+        /** Offer CANDIDATE, whose score is SCORE. */
+        void add(double score, long candidate) {
+            if (_size < _scores.length) {
+                int k = _size++;
+                while (k > 0 && _scores[(k - 1) / 2] > score) {
+                    move(k, (k - 1) / 2);
+                    k = (k - 1) / 2;
+                }
+                _scores[k] = score;
+                _candidates[k] = candidate;
+            } else if (_size > 0 && score > _scores[0]) {
+                int k = 0;
+                while (true) {
+                    int child = 2 * k + 1;
+                    if (child >= _size) {
+                        break;
+                    }
+                    if (child + 1 < _size
+                        && _scores[child + 1] < _scores[child]) {
+                        child += 1;
+                    }
+                    if (_scores[child] >= score) {
+                        break;
+                    }
+                    move(k, child);
+                    k = child;
+                }
+                _scores[k] = score;
+                _candidates[k] = candidate;
+            }
+        }
+
+        /** Offer all of the candidates of OTHER, returning this. */
+        Top merge(Top other) {
+            for (int k = 0; k < other._size; k++) {
+                add(other._scores[k], other._candidates[k]);
+            }
+            return this;
+        }
+
+        /** Return my candidates, best first. */
+        long[] candidates() {
+            Integer[] order = new Integer[_size];
+            for (int k = 0; k < _size; k++) {
+                order[k] = k;
+            }
+            Arrays.sort(order, (k0, k1) -> Double.compare(_scores[k1],
+                                                          _scores[k0]));
+            long[] result = new long[_size];
+            for (int k = 0; k < _size; k++) {
+                result[k] = _candidates[order[k]];
+            }
+            return result;
+        }
+
+        /** Move my entry at FROM to TO. */
+        private void move(int to, int from) {
+            _scores[to] = _scores[from];
+            _candidates[to] = _candidates[from];
+        }
+
+        /** Scores and candidates, as a heap with the lowest score at 0. */
+        private final double[] _scores;
+        /** See _scores. */
+        private final long[] _candidates;
+        /** Number of candidates held. */
+        private int _size;
+    }
+
+    /** The scan of the candidates numbered LO to HI - 1: for candidate C,
+     *  rotor order _orders.get(C / _perOrder), with start settings given
+     *  by the digits of C % _perOrder (see Climber.decode). */
+    private class Scan extends RecursiveTask<Top> {
+
+        /** The scan of candidates LO to HI - 1, keeping the best SIZE. */
+        Scan(long lo, long hi, int size) {
+            _lo = lo;
+            _hi = hi;
+            _size = size;
+        }
+
+        @Override
+        protected Top compute() {
+            if (_hi - _lo <= GRAIN) {
+                Top top = new Top(_size);
+                _climbers.get().scan(_lo, _hi, top);
+                return top;
+            }
+            long mid = (_lo + _hi) >>> 1;
+            Scan left = new Scan(_lo, mid, _size);
+            left.fork();
+            Top right = new Scan(mid, _hi, _size).compute();
+            return right.merge(left.join());
+        }
+
+        /** Bounds of my candidates. */
+        private final long _lo, _hi;
+        /** Number of candidates to keep. */
+        private final int _size;
+        /** Version of my serialized form. */
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** The hill climbs from CANDIDATES[LO] to CANDIDATES[HI - 1]. */
+    private class Climbs extends RecursiveAction {
+
+        /** The climbs from CANDIDATES[LO] to CANDIDATES[HI - 1]. */
+        Climbs(long[] candidates, int lo, int hi) {
+            _candidates = candidates;
+            _lo = lo;
+            _hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo == 1) {
+                _results.add(_climbers.get().climb(_candidates[_lo]));
+            } else if (_hi > _lo) {
+                int mid = (_lo + _hi) >>> 1;
+                invokeAll(new Climbs(_candidates, _lo, mid),
+                          new Climbs(_candidates, mid, _hi));
+            }
+        }
+
+        /** Candidates from which to climb. */
+        private final long[] _candidates;
+        /** Bounds of my climbs. */
+        private final int _lo, _hi;
+        /** Version of my serialized form. */
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** A worker's machine and working storage. */
+    private class Climber {
+
+        /** Score candidates LO to HI - 1 by the index of coincidence of
+         *  their decryptions with no plugboard, offering them to TOP. */
+        void scan(long lo, long hi, Top top) {
+            int order = (int) (lo / _perOrder);
+            decode(lo % _perOrder);
+            _machine.insertRotors(_orders.get(order));
+            _count = 0;
+            for (long c = lo; c < hi; c++) {
+                if (c / _perOrder != order) {
+                    order += 1;
+                    _machine.insertRotors(_orders.get(order));
+                }
+                top.add(score(false, false), c);
+                increment();
+            }
+            _decryptions.add(_count);
+        }
+
+        /** Return the result of a hill climb from CANDIDATE. */
+        Result climb(long candidate) {
+            String[] order = _orders.get((int) (candidate / _perOrder));
+            _machine.insertRotors(order);
+            decode(candidate % _perOrder);
+            _count = 0;
+            climbRotors(false);
+            climbPlugboard(false);
+            boolean ngrams = _ngrams != null;
+            double best = climbPlugboard(ngrams);
+            while (true) {
+                climbRotors(ngrams);
+                double score = climbPlugboard(ngrams);
+                if (score <= best) {
+                    break;
+                }
+                best = score;
+            }
+            Result result = result(order, best);
+            _decryptions.add(_count);
+            return result;
+        }
+
+        /** Set the current key to the start settings given by the digits
+         *  of P in base alphabet size, the last slot's lowest, with ring
+         *  settings at 0 and no plugboard. */
+        private void decode(long p) {
+            int n = _alphabet.size();
+            for (int k = _numRotors - 1; k > 0; k--) {
+                _settings[k] = (int) (p % n);
+                _ringSettings[k] = 0;
+                p /= n;
+            }
+            for (int c = 0; c < n; c++) {
+                _plug[c] = c;
+            }
+            _plugged = 0;
+        }
+
+        /** Advance the current start settings to those of the next
+         *  candidate, in the numbering used by decode. */
+        private void increment() {
+            int n = _alphabet.size();
+            for (int k = _numRotors - 1; k > 0; k--) {
+                _settings[k] += 1;
+                if (_settings[k] < n) {
+                    return;
+                }
+                _settings[k] = 0;
+            }
+        }
+
+        /** Improve the setting of each slot in turn, and ring settings if
+         *  searched, until no change improves the score (by N-grams iff
+         *  NGRAMS).  Returns the final score. */
+        private double climbRotors(boolean ngrams) {
+            int n = _alphabet.size();
+            double best = score(ngrams, false);
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int k = 1; k < _numRotors; k++) {
+                    int keep = _settings[k];
+                    for (int v = 0; v < n; v++) {
+                        if (v == keep) {
+                            continue;
+                        }
+                        _settings[k] = v;
+                        double score = score(ngrams, false);
+                        if (score > best) {
+                            best = score;
+                            improved = true;
+                            keep = v;
+                        }
+                    }
+                    _settings[k] = keep;
+                }
+                if (_rings) {
+                    for (int k = _numRotors - _pawls; k < _numRotors; k++) {
+                        double score = climbRing(k, ngrams, best);
+                        if (score > best) {
+                            best = score;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /** Try moving the ring of slot K together with its setting, which
+         *  changes only when the rotors step, keeping the best if it
+         *  improves on BEST (by N-grams iff NGRAMS).  Returns the score of
+         *  the result. */
+        private double climbRing(int k, boolean ngrams, double best) {
+            int n = _alphabet.size();
+            int ring = _ringSettings[k], setting = _settings[k];
+            int keep = 0;
+            for (int d = 1; d < n; d++) {
+                _ringSettings[k] = (ring + d) % n;
+                _settings[k] = (setting + d) % n;
+                double score = score(ngrams, false);
+                if (score > best) {
+                    best = score;
+                    keep = d;
+                }
+            }
+            _ringSettings[k] = (ring + keep) % n;
+            _settings[k] = (setting + keep) % n;
+            return best;
+        }
+
+        /** Improve the plugboard one pair at a time until no change
+         *  improves the score (by N-grams iff NGRAMS).  Returns the final
+         *  score. */
+        private double climbPlugboard(boolean ngrams) {
+            int n = _alphabet.size();
+            tabulate();
+            double best = score(ngrams, true);
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int a = 0; a < n; a++) {
+                    for (int b = a + 1; b < n; b++) {
+                        int pa = _plug[a], pb = _plug[b], plugged = _plugged;
+                        if (!swap(a, b)) {
+                            continue;
+                        }
+                        double score = score(ngrams, true);
+                        if (score > best) {
+                            best = score;
+                            improved = true;
+                        } else {
+                            _plug[pa] = a;
+                            _plug[pb] = b;
+                            _plug[a] = pa;
+                            _plug[b] = pb;
+                            _plugged = plugged;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /** Change the plugboard by unplugging A and B if they are paired,
+         *  and otherwise pairing them, first unplugging their partners.
+         *  Returns false, leaving the plugboard unchanged, if the result
+         *  would have too many pairs. */
+        private boolean swap(int a, int b) {
+            int pa = _plug[a], pb = _plug[b];
+            if (pa == b) {
+                _plug[a] = a;
+                _plug[b] = b;
+                _plugged -= 1;
+                return true;
+            }
+            int plugged = _plugged + 1 - (pa != a ? 1 : 0) - (pb != b ? 1 : 0);
+            if (plugged > _pairs) {
+                return false;
+            }
+            _plug[pa] = pa;
+            _plug[pb] = pb;
+            _plug[a] = b;
+            _plug[b] = a;
+            _plugged = plugged;
+            return true;
+        }
+
+        /** Set _table to the permutation of the rotors at each position of
+         *  the message, with the current rotor settings. */
+        private void tabulate() {
+            int n = _alphabet.size();
+            Machine m = _machine;
+            m.setPositions(_settings, _ringSettings);
+            for (int i = 0; i < _cipher.length; i++) {
+                m.step();
+                m.offsets(_offsets);
+                for (int c = 0; c < n; c++) {
+                    _table[i * n + c] = m.scramble(_offsets, c);
+                }
+            }
+        }
+
+        /** Decrypt the message into _text with the current key, using
+         *  _table iff TABULATED, and return its score: its N-gram
+         *  log-likelihood if NGRAMS and otherwise its index of
+         *  coincidence. */
+        private double score(boolean ngrams, boolean tabulated) {
+            int[] cipher = _cipher, text = _text, plug = _plug;
+            int len = cipher.length;
+            if (tabulated) {
+                int[] table = _table;
+                int n = _alphabet.size();
+                for (int i = 0; i < len; i++) {
+                    text[i] = plug[table[i * n + plug[cipher[i]]]];
+                }
+            } else {
+                Machine m = _machine;
+                int[] offsets = _offsets;
+                m.setPositions(_settings, _ringSettings);
+                for (int i = 0; i < len; i++) {
+                    m.step();
+                    m.offsets(offsets);
+                    text[i] = plug[m.scramble(offsets, plug[cipher[i]])];
+                }
+            }
+            _count += 1;
+            return ngrams ? _ngrams.score(text, len)
+                : indexOfCoincidence(text, len, _counts);
+        }
+
+        /** Return the result for the rotor order ORDER with the current
+         *  key, whose score is SCORE.  Requires that _table be that of
+         *  the current rotor settings. */
+        private Result result(String[] order, double score) {
+            int n = _alphabet.size();
+            StringBuilder setting = new StringBuilder();
+            StringBuilder ring = new StringBuilder();
+            for (int k = 1; k < _numRotors; k++) {
+                setting.append(_alphabet.toChar(_settings[k]));
+                ring.append(_alphabet.toChar(_ringSettings[k]));
+            }
+            StringBuilder cycles = new StringBuilder();
+            for (int a = 0; a < n; a++) {
+                if (_plug[a] > a) {
+                    if (cycles.length() > 0) {
+                        cycles.append(' ');
+                    }
+                    cycles.append('(').append(_alphabet.toChar(a))
+                        .append(_alphabet.toChar(_plug[a])).append(')');
+                }
+            }
+            score(false, true);
+            StringBuilder plaintext = new StringBuilder(_text.length);
+            for (int c : _text) {
+                plaintext.append(_alphabet.toChar(c));
+            }
+            KeySearch.Key key =
+                new KeySearch.Key(order.clone(), setting.toString(),
+                                  ring.toString(), cycles.toString());
+            return new Result(key, score, plaintext.toString());
+        }
+
+        /** The worker's machine. */
+        private final Machine _machine = _template.copy();
+        /** Start and ring settings of the current key, by slot. */
+        private final int[] _settings = new int[_numRotors],
+            _ringSettings = new int[_numRotors];
+        /** Plugboard of the current key: the partner of each character. */
+        private final int[] _plug = new int[_alphabet.size()];
+        /** Number of pairs in _plug. */
+        private int _plugged;
+        /** Offsets of the rotors at a position. */
+        private final int[] _offsets = new int[_numRotors];
+        /** Permutation of the rotors at position I of the message, at
+         *  I * alphabet size + C. */
+        private final int[] _table =
+            new int[_cipher.length * _alphabet.size()];
+        /** Current decryption. */
+        private final int[] _text = new int[_cipher.length];
+        /** Working storage for counting characters. */
+        private final int[] _counts = new int[_alphabet.size()];
+        /** Number of decryptions scored in the current scan or climb. */
+        private long _count;
+    }
+
+    /** Return the contents of the file named NAME. */
+    private static String read(String name) {
+        try {
+            return new String(Files.readAllBytes(Paths.get(name)),
+                              Charset.defaultCharset());
+        } catch (IOException excp) {
+            throw error("could not read %s", name);
+        }
+    }
+
+    /** Return the indices in my alphabet of the characters of TEXT,
+     *  other than white space. */
+    private int[] indices(String text) {
+        int[] result = new int[text.length()];
+        int len = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                continue;
+            }
+            if (!_alphabet.contains(ch)) {
+                throw error("character '%c' not in alphabet", ch);
+            }
+            result[len++] = _alphabet.toInt(ch);
+        }
+        return Arrays.copyOf(result, len);
+    }
+
+    /** Candidates scanned by a worker at a time. */
+    private static final long GRAIN = 1 << 10;
+    /** Default number of hill climbs. */
+    private static final int DEFAULT_STARTS = 100;
+    /** Default largest number of plugboard pairs. */
+    private static final int DEFAULT_PAIRS = 10;
+    /** Default N-gram length. */
+    private static final int DEFAULT_N = 3;
+    /** Number of results printed by main. */
+    private static final int SHOWN = 5;
+
+    /** Alphabet of the machine. */
+    private final Alphabet _alphabet;
+    /** Numbers of rotor slots and pawls. */
+    private final int _numRotors, _pawls;
+    /** The message, as alphabet indices. */
+    private final int[] _cipher;
+    /** N-gram table, or null. */
+    private final NGrams _ngrams;
+    /** Largest number of plugboard pairs. */
+    private final int _pairs;
+    /** True iff ring settings of moving rotors are searched. */
+    private final boolean _rings;
+    /** Rotor orders to try. */
+    private final ArrayList<String[]> _orders;
+    /** Numbers of candidates per rotor order, and in all. */
+    private final long _perOrder, _total;
+    /** Machine copied by each worker. */
+    private final Machine _template;
+    /** Each worker's machine and working storage. */
+    private final ThreadLocal<Climber> _climbers =
+        ThreadLocal.withInitial(Climber::new);
+    /** Number of decryptions scored so far. */
+    private final LongAdder _decryptions = new LongAdder();
+    /** Results so far. */
+    private final ConcurrentLinkedQueue<Result> _results =
+        new ConcurrentLinkedQueue<>();
+}
@@ -0,0 +1,103 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the HillClimb and NGrams classes.
+ *  @author Devyanshi Agarwal
+ */
+public class HillClimbTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(30);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** The rotors searched: some of the naval rotors. */
+    private static final ArrayList<Rotor> CANDIDATES =
+        navalRotors("B", "I", "II", "III");
+
+    /** Return LENGTH characters of a made-up language over UPPER, in
+     *  which each character is followed by one of a few others, as
+     *  chosen by RANDOM. */
+    private String language(int length, Random random) {
+        Random rules = new Random(1);
+        int[][] next = new int[26][4];
+        for (int[] choices : next) {
+            for (int k = 0; k < choices.length; k++) {
+                choices[k] = rules.nextInt(26);
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        int c = 0;
+        for (int i = 0; i < length; i++) {
+            int k = random.nextInt(10);
+            c = k < 6 ? next[c][0] : k < 8 ? next[c][1] : next[c][k - 6];
+            text.append(UPPER.toChar(c));
+        }
+        return text.toString();
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testNGrams() {
+        NGrams ngrams = new NGrams(UPPER, 2, "ab, AB;\nAC");
+        assertEquals(2, ngrams.n());
+        assertEquals(Math.log(2.0 / 5), ngrams.log(0, 1), 1e-6);
+        assertEquals(Math.log(1.0 / 5), ngrams.log(0, 2), 1e-6);
+        assertTrue(ngrams.log(2, 0) < ngrams.log(0, 2));
+        int[] text = { 0, 1, 0, 2 };
+        assertEquals(ngrams.log(0, 1) + ngrams.log(1, 0) + ngrams.log(0, 2),
+                     ngrams.score(text, 4), 1e-6);
+        assertEquals(ngrams.log(0, 1), ngrams.score(text, 2), 1e-6);
+        assertEquals(0, ngrams.score(text, 1), 0);
+    }
+
+    @Test
+    public void testIndexOfCoincidence() {
+        int[] counts = new int[4];
+        assertEquals(4.0, HillClimb.indexOfCoincidence(new int[] { 1, 1, 1 },
+                                                       3, counts), 1e-9);
+        assertEquals(0.0, HillClimb.indexOfCoincidence(new int[] { 0, 1, 2,
+                                                                   3 },
+                                                       4, counts), 1e-9);
+    }
+
+    @Test
+    public void testClimb() {
+        String[] rotors = { "B", "III", "I" };
+        String plugboard = "(AT) (BQ) (HZ)";
+        String plain = language(400, new Random(2));
+        String cipher = encrypt(2, rotors, "KD", "", plugboard, plain);
+        NGrams ngrams = new NGrams(UPPER, 3, language(100000, new Random(3)));
+        HillClimb climb = new HillClimb(UPPER, 3, 2, CANDIDATES, cipher,
+                                        ngrams, 5, false);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<HillClimb.Result> results = climb.search(pool, 20);
+            assertEquals(20, results.size());
+            assertEquals(6 * 26 * 26, climb.total());
+            assertTrue(climb.decryptions() > 0);
+            HillClimb.Result best = results.get(0);
+            assertEquals("* B III I KD AA " + plugboard,
+                         best.key().toString());
+            assertEquals(plain, best.plaintext());
+            for (HillClimb.Result result : results) {
+                assertTrue(result.score() <= best.score());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
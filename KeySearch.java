@@ -0,0 +1,620 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static enigma.EnigmaException.*;
+
+/** An exhaustive known-plaintext search for the rotors and settings of a
+ *  machine.  Every rotor order that a settings line could name (a
+ *  reflector, then non-moving rotors, then moving rotors in the slots
+ *  with pawls) is tried with every start setting and, optionally, every
+ *  ring setting of the moving rotors, against a crib: a plaintext and its
+ *  encryption from the start of a message under a known plugboard.  The
+ *  candidates are divided among the workers of a fork/join pool, each of
+ *  which converts them a batch at a time with a BatchMachine of its own,
+ *  dropping each candidate from its batch at its first wrong character.
+ *  @author Devyanshi Agarwal
+ */
+class KeySearch {
+
+    /** Search for keys, as specified by ARGS:
+     *      [--rings] [--threads=N] [--bombe | --plugboard=CYCLES]
+     *      CONFIG PLAINTEXT CIPHERTEXT
+     *  CONFIG names a configuration file, and PLAINTEXT and CIPHERTEXT
+     *  are the crib.  With --bombe, the plugboard is unknown and is
+     *  found by a Bombe.  Keys found are printed as settings lines, and
+     *  progress is reported on the standard error. */
+    public static void main(String... args) {
+        try {
+            boolean rings = false, bombe = false;
+            int threads = Runtime.getRuntime().availableProcessors();
+            String plugboard = "";
+            ArrayList<String> rest = new ArrayList<>();
+            for (String arg : args) {
+                if (arg.equals("--rings")) {
+                    rings = true;
+                } else if (arg.equals("--bombe")) {
+                    bombe = true;
+                } else if (arg.startsWith("--threads=")) {
+                    threads = option(arg, "--threads=", 1);
+                } else if (arg.startsWith("--plugboard=")) {
+                    plugboard = arg.substring(12);
+                } else if (arg.startsWith("--")) {
+                    throw error("unknown option %s", arg);
+                } else {
+                    rest.add(arg);
+                }
+            }
+            if (rest.size() != 3 || (bombe && !plugboard.isEmpty())) {
+                throw error("usage: KeySearch [--rings] [--threads=N] "
+                            + "[--bombe | --plugboard=CYCLES] CONFIG "
+                            + "PLAINTEXT CIPHERTEXT");
+            }
+            char[] text;
+            try {
+                text = new String(Files.readAllBytes(Paths.get(rest.get(0))),
+                                  Charset.defaultCharset()).toCharArray();
+            } catch (IOException excp) {
+                throw error("could not open %s", rest.get(0));
+            }
+            ConfigParser config = new ConfigParser(rest.get(0), text,
+                                                   text.length);
+            config.parse();
+            KeySearch search;
+            if (bombe) {
+                search = new Bombe(config.alphabet(), config.numRotors(),
+                                   config.numPawls(), config.rotors(),
+                                   rest.get(1), rest.get(2), rings);
+            } else {
+                search = new KeySearch(config.alphabet(), config.numRotors(),
+                                       config.numPawls(), config.rotors(),
+                                       rest.get(1), rest.get(2), plugboard,
+                                       rings);
+            }
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                search.search(pool, new Listener() {
+                    @Override
+                    public void progress(long tested, long total,
+                                         double perSecond) {
+                        System.err.printf("%d/%d keys tried (%.1f%%), "
+                                          + "%.0f keys/s%n", tested, total,
+                                          100.0 * tested / total, perSecond);
+                    }
+
+                    @Override
+                    public void found(Key key) {
+                        System.out.println(key);
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+        } catch (EnigmaException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /** Receives news of a search. */
+    interface Listener {
+        /** Report that TESTED of TOTAL candidates have been tried, at
+         *  PERSECOND candidates per second since the start. */
+        void progress(long tested, long total, double perSecond);
+
+        /** Report that KEY matches the crib.  Called from the worker that
+         *  found it. */
+        void found(Key key);
+    }
+
+    /** A key that matches the crib. */
+    static final class Key {
+
+        /** A key with ROTORS, start SETTING and ring setting RING, as in a
+         *  settings line, and plugboard PLUGBOARD. */
+        Key(String[] rotors, String setting, String ring, String plugboard) {
+            _rotors = rotors;
+            _setting = setting;
+            _ring = ring;
+            _plugboard = plugboard;
+        }
+
+        /** Return the names of my rotors, by slot. */
+        String[] rotors() {
+            return _rotors.clone();
+        }
+
+        /** Return my start setting. */
+        String setting() {
+            return _setting;
+        }
+
+        /** Return my ring setting. */
+        String ring() {
+            return _ring;
+        }
+
+        /** Return me as a settings line. */
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder("*");
+            for (String name : _rotors) {
+                line.append(' ').append(name);
+            }
+            line.append(' ').append(_setting).append(' ').append(_ring);
+            if (!_plugboard.isEmpty()) {
+                line.append(' ').append(_plugboard);
+            }
+            return line.toString();
+        }
+
+        /** Rotor names, by slot. */
+        private final String[] _rotors;
+        /** Start and ring settings. */
+        private final String _setting, _ring;
+        /** Plugboard cycles. */
+        private final String _plugboard;
+    }
+
+    /** A search among ROTORS, for a machine over ALPHABET with NUMROTORS
+     *  slots and PAWLS pawls, for keys that encrypt PLAINTEXT, from the
+     *  start of a message, as CIPHERTEXT, with the plugboard whose cycles
+     *  are PLUGBOARD.  Spaces in PLAINTEXT and CIPHERTEXT are ignored.
+     *  Ring settings of the moving rotors are searched iff RINGS; those
+     *  of the others are equivalent to changes of start setting.
+     *  Candidates are tried in batches. */
+    KeySearch(Alphabet alphabet, int numRotors, int pawls,
+              Collection<Rotor> rotors, String plaintext, String ciphertext,
+              String plugboard, boolean rings) {
+        this(alphabet, numRotors, pawls, rotors, plaintext, ciphertext,
+             plugboard, rings, true);
+    }
+
+    /** A search as above, in which candidates are tried in batches, with
+     *  a BatchMachine, iff BATCHED, and otherwise one at a time with
+     *  test().  The batches stand in for KeySearch's own test() and never
+     *  call it, so subclasses that override test() must pass false. */
+    protected KeySearch(Alphabet alphabet, int numRotors, int pawls,
+                        Collection<Rotor> rotors, String plaintext,
+                        String ciphertext, String plugboard, boolean rings,
+                        boolean batched) {
+        if (pawls >= numRotors) {
+            throw error("no slot for a reflector");
+        }
+        _alphabet = alphabet;
+        _numRotors = numRotors;
+        _pawls = pawls;
+        _plain = indices(plaintext);
+        _cipher = indices(ciphertext);
+        if (_plain.length != _cipher.length || _plain.length == 0) {
+            throw error("plaintext and ciphertext must have the same, "
+                        + "non-zero, length");
+        }
+        _plugboard = plugboard;
+        _rings = rings;
+
+        _orders = orders(numRotors, pawls, rotors);
+
+        _perOrder = settings(alphabet, numRotors + (rings ? pawls : 0) - 1);
+        _total = total(_perOrder, _orders.size());
+
+        _template = new Machine(alphabet, numRotors, pawls, rotors);
+        _template.setCompiled(true);
+        if (!_template.compiled()) {
+            throw error("alphabet of %d characters is too large to search",
+                        alphabet.size());
+        }
+        _template.setPlugboard(new Permutation(plugboard, alphabet));
+        _batched = batched;
+    }
+
+    /** Return my alphabet. */
+    Alphabet alphabet() {
+        return _alphabet;
+    }
+
+    /** Return the plaintext of the crib, as alphabet indices.  The result
+     *  must not be modified. */
+    int[] plaintext() {
+        return _plain;
+    }
+
+    /** Return the ciphertext of the crib, as alphabet indices.  The
+     *  result must not be modified. */
+    int[] ciphertext() {
+        return _cipher;
+    }
+
+    /** Return the total number of candidates. */
+    long total() {
+        return _total;
+    }
+
+    /** Return the number of rotor orders. */
+    int orders() {
+        return _orders.size();
+    }
+
+    /** Try every candidate on the workers of POOL, reporting progress and
+     *  keys found to LISTENER, if it is not null.  Returns the keys
+     *  found. */
+    List<Key> search(ForkJoinPool pool, Listener listener) {
+        _listener = listener;
+        _found.clear();
+        _tested.reset();
+        long start = System.nanoTime();
+        Range root = new Range(0, _total);
+        pool.execute(root);
+        while (true) {
+            try {
+                root.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException excp) {
+                if (listener != null) {
+                    long tested = _tested.sum();
+                    listener.progress(tested, _total,
+                                      tested * 1e9
+                                      / (System.nanoTime() - start));
+                }
+            } catch (ExecutionException excp) {
+                if (excp.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) excp.getCause();
+                }
+                throw new IllegalStateException(excp.getCause());
+            } catch (InterruptedException excp) {
+                root.cancel(true);
+                Thread.currentThread().interrupt();
+                throw error("search interrupted");
+            }
+        }
+        if (listener != null) {
+            listener.progress(_total, _total,
+                              _total * 1e9 / (System.nanoTime() - start));
+        }
+        return new ArrayList<>(_found);
+    }
+
+    /** A range of candidates, numbered from 0 to total() - 1: candidate
+     *  ORDER * _perOrder + P is the rotor order _orders.get(ORDER) with
+     *  settings and rings given by the digits of P (see decode). */
+    private class Range extends RecursiveAction {
+
+        /** The candidates numbered LO to HI - 1. */
+        Range(long lo, long hi) {
+            _lo = lo;
+            _hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo <= GRAIN) {
+                if (_batched) {
+                    searchBatches(_lo, _hi);
+                } else {
+                    searchRange(_lo, _hi);
+                }
+            } else {
+                long mid = (_lo + _hi) >>> 1;
+                invokeAll(new Range(_lo, mid), new Range(mid, _hi));
+            }
+        }
+
+        /** Bounds of my range. */
+        private final long _lo, _hi;
+        /** Version of my serialized form. */
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** Try the candidates numbered LO to HI - 1. */
+    private void searchRange(long lo, long hi) {
+        Machine m = _machines.get();
+        int[] settings = new int[_numRotors];
+        int[] rings = new int[_numRotors];
+        int order = (int) (lo / _perOrder);
+        long p = lo % _perOrder;
+        decode(p, settings, rings);
+        m.insertRotors(_orders.get(order));
+        for (long c = lo; c < hi; c++) {
+            if (p == _perOrder) {
+                order += 1;
+                p = 0;
+                decode(0, settings, rings);
+                m.insertRotors(_orders.get(order));
+            }
+            m.setPositions(settings, rings);
+            String plugboard = test(m);
+            if (plugboard != null) {
+                found(_orders.get(order), settings, rings, plugboard);
+            }
+            p += 1;
+            increment(settings, rings);
+        }
+        _tested.add(hi - lo);
+    }
+
+    /** Try the candidates numbered LO to HI - 1, as many at a time as a
+     *  BatchMachine holds, dropping each from its batch at its first
+     *  wrong character. */
+    private void searchBatches(long lo, long hi) {
+        if (lo >= hi) {
+            return;
+        }
+        Machine m = _machines.get();
+        BatchMachine batch = _batches.get();
+        int[] settings = new int[_numRotors];
+        int[] rings = new int[_numRotors];
+        int[] out = new int[batch.capacity()];
+        int[] plain = _plain, cipher = _cipher;
+        int order = -1;
+        long c = lo;
+        while (c < hi) {
+            if (c / _perOrder != order) {
+                order = (int) (c / _perOrder);
+                m.insertRotors(_orders.get(order));
+                batch.load(m);
+                decode(c % _perOrder, settings, rings);
+            }
+            long start = c;
+            long end = Math.min(Math.min(hi, start + batch.capacity()),
+                                (order + 1) * _perOrder);
+            batch.clear();
+            for (; c < end; c++) {
+                batch.add(settings, rings);
+                increment(settings, rings);
+            }
+            for (int k = 0; k < plain.length && batch.size() > 0; k++) {
+                batch.convert(plain[k], out);
+                batch.retain(out, cipher[k]);
+            }
+            for (int j = 0; j < batch.size(); j++) {
+                int[] foundSettings = new int[_numRotors];
+                int[] foundRings = new int[_numRotors];
+                decode((start + batch.id(j)) % _perOrder, foundSettings,
+                       foundRings);
+                found(_orders.get(order), foundSettings, foundRings,
+                      _plugboard);
+            }
+        }
+        _tested.add(hi - lo);
+    }
+
+    /** Return the cycles of a plugboard with which M, whose rotors are
+     *  set to those of a candidate, encrypts the crib, or null if there
+     *  is none.  M's plugboard is the one given to the constructor, and
+     *  its rotors may be left in any state.  Used only if I was constructed
+     *  not to batch, as subclasses that override it must be. */
+    String test(Machine m) {
+        int[] plain = _plain, cipher = _cipher;
+        for (int k = 0; k < plain.length; k++) {
+            if (m.convert(plain[k]) != cipher[k]) {
+                return null;
+            }
+        }
+        return _plugboard;
+    }
+
+    /** Set SETTINGS and RINGS to those of candidate P of a rotor order.
+     *  The lowest digit of P, in base alphabet size, is the setting of the
+     *  last slot, the next that of the slot before, and so on to slot 1,
+     *  followed by the ring settings of the moving rotors, if searched,
+     *  from the last slot back. */
+    private void decode(long p, int[] settings, int[] rings) {
+        int n = _alphabet.size();
+        for (int k = _numRotors - 1; k > 0; k--) {
+            settings[k] = (int) (p % n);
+            p /= n;
+        }
+        for (int k = _numRotors - 1; k >= _numRotors - _pawls; k--) {
+            if (_rings) {
+                rings[k] = (int) (p % n);
+                p /= n;
+            } else {
+                rings[k] = 0;
+            }
+        }
+    }
+
+    /** Set SETTINGS and RINGS to those of the candidate after theirs, in
+     *  the numbering used by decode. */
+    private void increment(int[] settings, int[] rings) {
+        int n = _alphabet.size();
+        for (int k = _numRotors - 1; k > 0; k--) {
+            settings[k] += 1;
+            if (settings[k] < n) {
+                return;
+            }
+            settings[k] = 0;
+        }
+        if (_rings) {
+            for (int k = _numRotors - 1; k >= _numRotors - _pawls; k--) {
+                rings[k] += 1;
+                if (rings[k] < n) {
+                    return;
+                }
+                rings[k] = 0;
+            }
+        }
+    }
+
+    /** Record that the rotors ORDER with SETTINGS and RINGS match, with
+     *  the plugboard whose cycles are PLUGBOARD. */
+    private void found(String[] order, int[] settings, int[] rings,
+                       String plugboard) {
+        StringBuilder setting = new StringBuilder();
+        StringBuilder ring = new StringBuilder();
+        for (int k = 1; k < _numRotors; k++) {
+            setting.append(_alphabet.toChar(settings[k]));
+            ring.append(_alphabet.toChar(rings[k]));
+        }
+        Key key = new Key(order.clone(), setting.toString(), ring.toString(),
+                          plugboard);
+        _found.add(key);
+        if (_listener != null) {
+            _listener.found(key);
+        }
+    }
+
+    /** Return the value of ARG, an option beginning with PREFIX, as an
+     *  integer, which must be at least LEAST. */
+    static int option(String arg, String prefix, int least) {
+        int value;
+        try {
+            value = Integer.parseInt(arg.substring(prefix.length()));
+        } catch (NumberFormatException excp) {
+            throw error("bad option %s", arg);
+        }
+        if (value < least) {
+            throw error("bad option %s: must be at least %d", arg, least);
+        }
+        return value;
+    }
+
+    /** Return the number of settings of ROTORS rotors over ALPHABET. */
+    static long settings(Alphabet alphabet, int rotors) {
+        long result = 1;
+        try {
+            for (int k = 0; k < rotors; k++) {
+                result = Math.multiplyExact(result, alphabet.size());
+            }
+        } catch (ArithmeticException excp) {
+            throw error("too many keys to search");
+        }
+        return result;
+    }
+
+    /** Return the number of keys with PERORDER settings for each of
+     *  ORDERS rotor orders. */
+    static long total(long perOrder, int orders) {
+        try {
+            return Math.multiplyExact(perOrder, (long) orders);
+        } catch (ArithmeticException excp) {
+            throw error("too many keys to search");
+        }
+    }
+
+    /** Return every rotor order, as the rotor names in each slot, that a
+     *  settings line for a machine with NUMROTORS slots and PAWLS pawls
+     *  could name from among ROTORS. */
+    static ArrayList<String[]> orders(int numRotors, int pawls,
+                                      Collection<Rotor> rotors) {
+        ArrayList<String> reflectors = new ArrayList<>();
+        ArrayList<String> fixed = new ArrayList<>();
+        ArrayList<String> moving = new ArrayList<>();
+        for (Rotor rotor : rotors) {
+            if (rotor.reflecting()) {
+                reflectors.add(rotor.name());
+            } else if (rotor.rotates()) {
+                moving.add(rotor.name());
+            } else {
+                fixed.add(rotor.name());
+            }
+        }
+        ArrayList<String[]> orders = new ArrayList<>();
+        String[] order = new String[numRotors];
+        for (String reflector : reflectors) {
+            order[0] = reflector;
+            arrange(orders, order, 1, numRotors - pawls, fixed, moving);
+        }
+        return orders;
+    }
+
+    /** Add to ORDERS every completion of ORDER from slot K on, with
+     *  rotors from FIXED in slots before MOVINGSTART and rotors from MOVING
+     *  in the rest, none used twice. */
+    private static void arrange(List<String[]> orders, String[] order, int k,
+                                int movingStart, List<String> fixed,
+                                List<String> moving) {
+        if (k == order.length) {
+            orders.add(order.clone());
+            return;
+        }
+        for (String name : k < movingStart ? fixed : moving) {
+            boolean used = false;
+            for (int j = 1; j < k; j++) {
+                used |= order[j].equals(name);
+            }
+            if (!used) {
+                order[k] = name;
+                arrange(orders, order, k + 1, movingStart, fixed, moving);
+            }
+        }
+    }
+
+    /** Return the indices in my alphabet of the characters of TEXT,
+     *  other than spaces. */
+    private int[] indices(String text) {
+        text = text.replace(" ", "");
+        int[] result = new int[text.length()];
+        for (int i = 0; i < result.length; i++) {
+            if (!_alphabet.contains(text.charAt(i))) {
+                throw error("character '%c' not in alphabet", text.charAt(i));
+            }
+            result[i] = _alphabet.toInt(text.charAt(i));
+        }
+        return result;
+    }
+
+    /** Return a copy of _template. */
+    private Machine copyTemplate() {
+        return _template.copy();
+    }
+
+    /** Return a BatchMachine for the current worker. */
+    private BatchMachine newBatch() {
+        Machine m = _machines.get();
+        m.insertRotors(_orders.get(0));
+        return new BatchMachine(m, BATCH);
+    }
+
+    /** Candidates tried by a worker at a time. */
+    private static final long GRAIN = 1 << 14;
+    /** Candidates tried together by searchBatches. */
+    private static final int BATCH = 1 << 10;
+    /** Milliseconds between progress reports. */
+    private static final long PROGRESS_INTERVAL = 1000;
+
+    /** Alphabet of the machine. */
+    private final Alphabet _alphabet;
+    /** Numbers of rotor slots and pawls. */
+    private final int _numRotors, _pawls;
+    /** The crib, as alphabet indices. */
+    private final int[] _plain, _cipher;
+    /** Cycles of the plugboard. */
+    private final String _plugboard;
+    /** True iff ring settings of moving rotors are searched. */
+    private final boolean _rings;
+    /** True iff candidates are tried in batches, rather than by test(). */
+    private final boolean _batched;
+    /** Rotor orders to try. */
+    private final ArrayList<String[]> _orders;
+    /** Numbers of candidates per rotor order, and in all. */
+    private final long _perOrder, _total;
+    /** Machine copied by each worker. */
+    private final Machine _template;
+    /** Each worker's machine. */
+    private final ThreadLocal<Machine> _machines =
+        ThreadLocal.withInitial(this::copyTemplate);
+    /** Each worker's batch of machines. */
+    private final ThreadLocal<BatchMachine> _batches =
+        ThreadLocal.withInitial(this::newBatch);
+    /** Number of candidates tried so far. */
+    private final LongAdder _tested = new LongAdder();
+    /** Keys found so far. */
+    private final ConcurrentLinkedQueue<Key> _found =
+        new ConcurrentLinkedQueue<>();
+    /** Receiver of news of the current search, or null. */
+    private volatile Listener _listener;
+}
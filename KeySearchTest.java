@@ -0,0 +1,136 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the KeySearch class.
+ *  @author Devyanshi Agarwal
+ */
+public class KeySearchTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(30);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** The rotors searched: some of the naval rotors. */
+    private static final ArrayList<Rotor> CANDIDATES =
+        navalRotors("B", "Beta", "I", "II", "III");
+
+    /** Return the settings lines of KEYS. */
+    private List<String> lines(List<KeySearch.Key> keys) {
+        ArrayList<String> lines = new ArrayList<>();
+        for (KeySearch.Key key : keys) {
+            lines.add(key.toString());
+        }
+        return lines;
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testSettings() {
+        String[] rotors = { "B", "Beta", "III", "I", "II" };
+        String plain = "WETTERVORHERSAGEBISKAYA";
+        String cipher = encrypt(3, rotors, "QEVZ", "", "(AB) (CD)", plain);
+        KeySearch search = new KeySearch(UPPER, 5, 3, CANDIDATES, plain,
+                                         cipher, "(AB) (CD)", false);
+        assertEquals(6, search.orders());
+        assertEquals(6L * 26 * 26 * 26 * 26, search.total());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> found = lines(search.search(pool, null));
+            assertEquals(1, found.size());
+            assertEquals("* B Beta III I II QEVZ AAAA (AB) (CD)",
+                         found.get(0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRings() {
+        String[] rotors = { "B", "I", "III" };
+        String plain = "ANXKEINEBESONDERENEREIGNISSE";
+        String cipher = encrypt(2, rotors, "VU", "DV", "", plain);
+        KeySearch search = new KeySearch(UPPER, 3, 2, CANDIDATES, plain,
+                                         cipher, "", true);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<String> found = lines(search.search(pool, null));
+            assertTrue(found.toString(), found.contains("* B I III VU DV"));
+            for (String line : found) {
+                String[] fields = line.split(" ");
+                assertEquals(cipher,
+                             encrypt(2, new String[] { fields[1], fields[2],
+                                                       fields[3] },
+                                     fields[4], fields[5], "", plain));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testOptions() {
+        assertEquals(4, KeySearch.option("--threads=4", "--threads=", 1));
+        assertEquals(0, KeySearch.option("--pairs=0", "--pairs=", 0));
+        for (String arg : new String[] {
+                "--threads=0", "--threads=-1", "--threads=", "--threads=x",
+                "--threads=99999999999" }) {
+            try {
+                KeySearch.option(arg, "--threads=", 1);
+                fail(arg + " accepted");
+            } catch (EnigmaException excp) {
+                assertTrue(excp.getMessage(), excp.getMessage().contains(arg));
+            }
+        }
+    }
+
+    @Test
+    public void testTooManyKeys() {
+        assertEquals(26L * 26 * 26, KeySearch.settings(UPPER, 3));
+        try {
+            KeySearch.settings(UPPER, 14);
+            fail("overflow not reported");
+        } catch (EnigmaException excp) {
+            /* Expected. */
+        }
+        try {
+            KeySearch.total(Long.MAX_VALUE / 2, 3);
+            fail("overflow not reported");
+        } catch (EnigmaException excp) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    public void testOverriddenTest() {
+        String[] rotors = { "B", "Beta", "III", "I", "II" };
+        String plain = "WETTERVORHERSAGEBISKAYA";
+        String cipher = encrypt(3, rotors, "QEVZ", "", "", plain);
+        KeySearch search = new KeySearch(UPPER, 5, 3, CANDIDATES, plain,
+                                         cipher, "", false, false) {
+            @Override
+            String test(Machine m) {
+                return super.test(m) == null ? null : "(XY)";
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals("[* B Beta III I II QEVZ AAAA (XY)]",
+                         lines(search.search(pool, null)).toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -1,21 +1,167 @@
 package enigma;
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-/** Class that represents a complete enigma machine.
+/** Class that represents a complete enigma machine.  The rotors it is
+ *  given are used only as definitions: the machine inserts rotors of its
+ *  own that share their permutations and notches, so any number of
+ *  machines may be built from one collection of rotors.
  *  @author Devyanshi Agarwal
  */
 class Machine {
 
     /** A new Enigma machine with alphabet ALPHA, 1 < NUMROTORS rotor slots,
      *  and 0 <= PAWLS < NUMROTORS pawls.  ALLROTORS contains all the
-     *  available rotors. */
+     *  available rotors, and is indexed by name here, so it must not
+     *  change afterwards. */
     Machine(Alphabet alpha, int numRotors, int pawls,
             Collection<Rotor> allRotors) {
+        this(alpha, numRotors, pawls, allRotors, index(allRotors));
+    }
+
+    /** A new Enigma machine as for Machine(ALPHA, NUMROTORS, PAWLS,
+     *  ALLROTORS), where ROTORSBYNAME maps the name of each rotor in
+     *  ALLROTORS to the first rotor in ALLROTORS with that name. */
+    private Machine(Alphabet alpha, int numRotors, int pawls,
+                    Collection<Rotor> allRotors,
+                    Map<String, Rotor> rotorsByName) {
         _alphabet = alpha;
         _numRotors = numRotors;
         _pawls = pawls;
         _allRotors = allRotors;
+        _rotorsByName = rotorsByName;
         _myRotors = new Rotor[_numRotors];
+        _definitions = new Rotor[_numRotors];
+    }
+
+    /** Return a map from the name of each rotor in ALLROTORS to the first
+     *  rotor in ALLROTORS with that name. */
+    private static Map<String, Rotor> index(Collection<Rotor> allRotors) {
+        HashMap<String, Rotor> rotorsByName = new HashMap<>();
+        for (Rotor rotor : allRotors) {
+            rotorsByName.putIfAbsent(rotor.name(), rotor);
+        }
+        return rotorsByName;
+    }
+
+    /** Return a new machine in my current state, with the same
+     *  alphabet, available rotors, plugboard and mode, but with rotors of
+     *  its own, so that converting with either machine does not disturb
+     *  the other.  Rotor definitions and conversion tables are shared. */
+    Machine copy() {
+        Machine copy = new Machine(_alphabet, _numRotors, _pawls, _allRotors,
+                                   _rotorsByName);
+        for (int i = 0; i < _numRotors; i++) {
+            if (_myRotors[i] != null) {
+                copy._myRotors[i] = _myRotors[i].copy();
+            }
+        }
+        copy._definitions = _definitions;
+        copy._adjacentNotches = _adjacentNotches;
+        copy._startSettings = _startSettings;
+        copy._plugboard = _plugboard;
+        copy._compiled = _compiled;
+        copy._forward = _forward;
+        copy._backward = _backward;
+        copy._plugForward = _plugForward;
+        copy._plugBackward = _plugBackward;
+        return copy;
+    }
+
+    /** Return a record of my current rotors, their settings and ring
+     *  settings, and my plugboard, for restore(). */
+    State snapshot() {
+        int[] settings = new int[_numRotors];
+        int[] rings = new int[_numRotors];
+        for (int i = 0; i < _numRotors; i++) {
+            if (_myRotors[i] != null) {
+                settings[i] = _myRotors[i].setting();
+                rings[i] = _myRotors[i].ring();
+            }
+        }
+        return new State(_definitions, settings, rings, _startSettings,
+                         _plugboard);
+    }
+
+    /** Return me to the state recorded in STATE, which must come from
+     *  this machine or one sharing its rotor definitions. */
+    void restore(State state) {
+        if (state._rotors.length != _numRotors) {
+            throw EnigmaException.error("state has wrong number of rotors");
+        }
+        if (state._rotors != _definitions) {
+            _definitions = state._rotors;
+            _myRotors = new Rotor[_numRotors];
+            for (int i = 0; i < _numRotors; i++) {
+                if (_definitions[i] != null) {
+                    _myRotors[i] = _definitions[i].unset();
+                }
+            }
+            findAdjacentNotches();
+            if (_compiled) {
+                compileRotors();
+            }
+        }
+        for (int i = 0; i < _numRotors; i++) {
+            if (_myRotors[i] != null) {
+                _myRotors[i].set(state._settings[i]);
+                _myRotors[i].setRing(state._rings[i]);
+            }
+        }
+        _startSettings = state._startSettings;
+        if (_plugboard != state._plugboard) {
+            setPlugboard(state._plugboard);
+        }
+    }
+
+    /** The rotors, settings, ring settings and plugboard of a machine at
+     *  some moment.  States are immutable and may be restored into any
+     *  machine that shares the rotor definitions of the one that made
+     *  them, from any thread. */
+    static final class State {
+
+        /** A state with rotors made from the definitions ROTORS, in
+         *  SETTINGS and RINGS, with start settings STARTSETTINGS for
+         *  seek() and plugboard PLUGBOARD.  None of these arrays is
+         *  changed afterwards. */
+        private State(Rotor[] rotors, int[] settings, int[] rings,
+                      int[] startSettings, Permutation plugboard) {
+            _rotors = rotors;
+            _settings = settings;
+            _rings = rings;
+            _startSettings = startSettings;
+            _plugboard = plugboard;
+        }
+
+        /** Return the setting of the rotor in slot I. */
+        int setting(int i) {
+            return _settings[i];
+        }
+
+        /** Return the ring setting of the rotor in slot I. */
+        int ring(int i) {
+            return _rings[i];
+        }
+
+        /** Rotor definitions, by slot. */
+        private final Rotor[] _rotors;
+        /** Rotor settings, by slot. */
+        private final int[] _settings;
+        /** Ring settings, by slot. */
+        private final int[] _rings;
+        /** Settings last given to setRotors, by slot. */
+        private final int[] _startSettings;
+        /** The plugboard. */
+        private final Permutation _plugboard;
     }
 
     /** Return the number of rotor slots I have. */
@@ -28,27 +174,74 @@ class Machine {
         return _pawls;
     }
 
+    /** Return my alphabet. */
+    Alphabet alphabet() {
+        return _alphabet;
+    }
+
+    /** Return the rotor in slot K, or null if none has been inserted.
+     *  It must not be modified. */
+    Rotor rotor(int k) {
+        return _myRotors[k];
+    }
+
+    /** Return my plugboard. */
+    Permutation plugboard() {
+        return _plugboard;
+    }
+
     /** Set my rotor slots to the rotors named ROTORS from my set of
      *  available rotors (ROTORS[0] names the reflector).
      *  Initially, all rotors are set at their 0 setting. */
     void insertRotors(String[] rotors) {
+        if (inserted(rotors)) {
+            for (int i = 0; i < _numRotors; i++) {
+                _myRotors[i].set(0);
+                _myRotors[i].setRing(0);
+            }
+            return;
+        }
         checkDuplicate(rotors);
-        _myRotors = new Rotor[_numRotors];
+        Rotor[] myRotors = new Rotor[_numRotors];
+        Rotor[] definitions = new Rotor[_numRotors];
         for (int i = 0; i < rotors.length; i++) {
-            for (Rotor thisRotor : _allRotors) {
-                if (rotors[i].equals(thisRotor.name())) {
-                    _myRotors[i] = thisRotor;
-                    break;
-                }
+            Rotor thisRotor = _rotorsByName.get(rotors[i]);
+            if (thisRotor != null) {
+                definitions[i] = thisRotor;
+                myRotors[i] = thisRotor.unset();
+            }
+        }
+        for (int i = 0; i < myRotors.length; i++) {
+            if (myRotors[i] == null) {
+                throw EnigmaException.error("Bad rotor name");
             }
         }
-        if (!_myRotors[0].reflecting()) {
+        if (!myRotors[0].reflecting()) {
             throw EnigmaException.error("Reflector"
                      + " in wrong place");
         }
-        for (int i = 0; i < _myRotors.length; i++) {
-            if (_myRotors[i] == null) {
-                throw EnigmaException.error("Bad rotor name");
+        if (!myRotors[0].permutation().derangement()) {
+            throw EnigmaException.error("Reflectors must be derangement");
+        }
+        _myRotors = myRotors;
+        _definitions = definitions;
+        findAdjacentNotches();
+        if (_compiled) {
+            compileRotors();
+        }
+    }
+
+    /** Record whether any of my pawled rotors has notches at two adjacent
+     *  settings, which depends only on which rotors I hold. */
+    private void findAdjacentNotches() {
+        _adjacentNotches = false;
+        for (int i = _numRotors - _pawls; i < _numRotors; i++) {
+            Rotor rotor = _myRotors[i];
+            int size = rotor.size();
+            for (int p = 0; p < size; p++) {
+                if (rotor.notchAt(p) && rotor.notchAt((p + 1) % size)) {
+                    _adjacentNotches = true;
+                }
             }
         }
     }
@@ -68,20 +261,88 @@ class Machine {
             throw EnigmaException.error(
                     "Incorrect input to rotor setting");
         }
-        if (ring.equals("")) {
-            for (int i = 0; i < setting.length(); i++) {
-                ring += Character.toString(_alphabet.toChar(0));
-            }
-        }
+        _startSettings = new int[_numRotors];
         for (int i = 0; i < setting.length(); i++) {
             _myRotors[i + 1].set(setting.charAt(i));
-            _myRotors[i + 1].setRing(ring.charAt(i));
+            if (ring.isEmpty()) {
+                _myRotors[i + 1].setRing(0);
+            } else {
+                _myRotors[i + 1].setRing(ring.charAt(i));
+            }
+            _startSettings[i + 1] = _myRotors[i + 1].setting();
+        }
+    }
+
+    /** Set the rotor in each slot K > 0 to setting SETTINGS[K] and ring
+     *  setting RINGS[K], as setRotors does, but without checking them and
+     *  without changing the settings to which seek() returns.  For use
+     *  in searches that try many settings. */
+    void setPositions(int[] settings, int[] rings) {
+        for (int k = 1; k < _numRotors; k++) {
+            _myRotors[k].set(settings[k]);
+            _myRotors[k].setRing(rings[k]);
         }
     }
 
     /** Set the plugboard to PLUGBOARD. */
     void setPlugboard(Permutation plugboard) {
+        if (plugboard == _plugboard) {
+            return;
+        }
         _plugboard = plugboard;
+        if (_compiled) {
+            compilePlugboard();
+        }
+    }
+
+    /** Return true iff I convert through precomputed tables. */
+    boolean compiled() {
+        return _compiled;
+    }
+
+    /** Convert through precomputed per-rotor tables iff COMPILED and my
+     *  alphabet has at most Permutation.MAX_SHIFTED_SIZE characters;
+     *  larger alphabets stay uncompiled, since the tables grow as the
+     *  square of the alphabet.  The tables hold each rotor's conversion
+     *  at every offset, so that a keystroke is a chain of array loads.
+     *  Output is identical to that of the uncompiled machine. */
+    void setCompiled(boolean compiled) {
+        compiled &= _alphabet.size() <= Permutation.MAX_SHIFTED_SIZE;
+        _compiled = compiled;
+        if (compiled) {
+            compileRotors();
+            compilePlugboard();
+        } else {
+            _forward = _backward = null;
+            _plugForward = _plugBackward = null;
+        }
+    }
+
+    /** Fetch the conversion tables of my current rotors. */
+    private void compileRotors() {
+        _forward = new int[_numRotors][];
+        _backward = new int[_numRotors][];
+        for (int i = 0; i < _numRotors; i++) {
+            if (_myRotors[i] != null) {
+                _forward[i] = _myRotors[i].forwardTable();
+                _backward[i] = _myRotors[i].backwardTable();
+            }
+        }
+    }
+
+    /** Tabulate my current plugboard and its inverse. */
+    private void compilePlugboard() {
+        if (_plugboard == null) {
+            _plugForward = _plugBackward = null;
+            return;
+        }
+        int n = _alphabet.size();
+        _plugForward = new int[n];
+        _plugBackward = new int[n];
+        for (int i = 0; i < n; i++) {
+            _plugForward[i] = _plugboard.permute(i);
+            _plugBackward[i] = _plugboard.invert(i);
+        }
     }
 
     /** Returns the result of converting the input character C (as an
@@ -89,28 +350,14 @@ class Machine {
 
      *  the machine. */
     int convert(int c) {
-        int input = _plugboard.permute(c);
-        boolean[] shouldAdvance = new boolean[numRotors()];
-        int numFixed = _numRotors - numPawls();
-        for (int i = numFixed; i < shouldAdvance.length; i++) {
-            shouldAdvance[i] = true;
-        }
-        for (int i = numFixed; i < _numRotors; i++) {
-            if (shouldAdvance[_numRotors - 1] && i == _numRotors - 1) {
-                _myRotors[_numRotors - 1].advance();
-                break;
-            }
-            if (i != _numRotors - 1) {
-                if (_myRotors[i + 1].atNotch() && shouldAdvance[i]) {
-                    _myRotors[i].advance();
-                    shouldAdvance[i] = false;
-                    if (shouldAdvance[i + 1]) {
-                        _myRotors[i + 1].advance();
-                        shouldAdvance[i + 1] = false;
-                    }
-                }
-            }
+        if (Metrics.ENABLED) {
+            Metrics.keystroke();
+        }
+        advanceRotors(true);
+        if (_compiled) {
+            return convertCompiled(c);
         }
+        int input = _plugboard.permute(c);
         for (int i = _numRotors - 1; i >= 0; i = i - 1) {
             input = _myRotors[i].convertForward(input);
         }
@@ -121,22 +368,453 @@ class Machine {
         return input;
     }
 
+    /** Advance my pawled rotors for one keystroke.  Working from the
+     *  leftmost pawled rotor, the pawl in front of a rotor whose right
+     *  neighbour is at a notch pushes both of them, unless that rotor was
+     *  itself just pushed by the pawl to its left.  The rightmost rotor
+     *  always advances, and no rotor advances more than once.  Notches are
+     *  read before the rotor they belong to moves.  A rotor that moves
+     *  because it was pushed, being itself at a notch, is double
+     *  stepping.  The advances are recorded in Metrics iff CONVERTING,
+     *  that is, iff they are made in converting a keystroke. */
+    private void advanceRotors(boolean converting) {
+        int last = _numRotors - 1;
+        int first = _numRotors - _pawls;
+        if (first > last) {
+            return;
+        }
+        boolean pushed = false;
+        for (int i = first; i < last; i++) {
+            boolean push = !pushed && _myRotors[i + 1].atNotch();
+            if (push || pushed) {
+                _myRotors[i].advance();
+                if (Metrics.ENABLED && converting) {
+                    Metrics.rotorAdvance(i);
+                    if (pushed) {
+                        Metrics.doubleStep();
+                    }
+                }
+            }
+            pushed = push;
+        }
+        _myRotors[last].advance();
+        if (Metrics.ENABLED && converting) {
+            Metrics.rotorAdvance(last);
+        }
+    }
+
+    /** Set my rotors to the positions they would reach after N >= 0
+     *  keystrokes, starting from the settings last given to setRotors. */
+    void seek(long n) {
+        for (int i = 1; i < _numRotors; i++) {
+            _myRotors[i].set(_startSettings[i]);
+        }
+        skip(n);
+    }
+
+    /** Advance my rotors as N >= 0 keystrokes would, without converting
+     *  anything.  Unless some pawled rotor has notches at two adjacent
+     *  settings, this takes time independent of N; otherwise it takes time
+     *  bounded by the number of settings of my pawled rotors other than
+     *  the leftmost (see skipPeriodic). */
+    void skip(long n) {
+        if (_adjacentNotches && _pawls > 1) {
+            skipPeriodic(n);
+            return;
+        }
+        while (n > 0 && (n <= _pawls || !settled())) {
+            advanceRotors(false);
+            n -= 1;
+        }
+        if (n > 0) {
+            jump(n);
+        }
+    }
+
+    /** Returns true iff my rotors, none of which has notches at adjacent
+     *  settings, are in a state from which jump() is exact: no two
+     *  adjacent pawled rotors, other than the leftmost, are both at a
+     *  notch.  From such a state advanceRotors reduces to the rule
+     *  that a rotor advances iff the rotor to its right is at a notch or,
+     *  unless it is the leftmost pawled rotor, it is at a notch itself, and
+     *  the state stays settled. */
+    private boolean settled() {
+        int first = _numRotors - _pawls;
+        for (int i = first + 2; i < _numRotors; i++) {
+            if (_myRotors[i].atNotch() && _myRotors[i - 1].atNotch()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Advance my rotors, which must be settled(), as T > numPawls()
+     *  keystrokes would.  Rotors are placed right to left.  The rightmost
+     *  advances T times, and each settled rotor to its left moves once
+     *  per step that the rotor to its right spends at a notch.  Settled
+     *  rotors other than the leftmost pawled one also skip straight
+     *  through their own notches. */
+    private void jump(long t) {
+        int last = _numRotors - 1;
+        int first = _numRotors - _pawls;
+        long[] right = null;
+        long rightStart = 0;
+        for (int j = last; j >= first; j -= 1) {
+            Rotor rotor = _myRotors[j];
+            long start = rotor.setting();
+            long[] here = new long[j - first + 1];
+            for (int k = 0; k < here.length; k++) {
+                long time = t - k;
+                if (!rotor.rotates()) {
+                    here[k] = start;
+                } else if (j == last) {
+                    here[k] = start + time;
+                } else {
+                    Rotor next = _myRotors[j + 1];
+                    long pulses = notches(next, right[k])
+                        - notches(next, rightStart);
+                    if (j == first) {
+                        here[k] = start + pulses;
+                    } else {
+                        boolean pushedLast =
+                            next.notchAt((int) (right[k + 1] % next.size()));
+                        here[k] = settledPosition(rotor, start, pulses,
+                                                  pushedLast);
+                    }
+                }
+            }
+            rotor.set((int) (here[0] % rotor.size()));
+            right = here;
+            rightStart = start;
+        }
+    }
+
+    /** Advance my rotors as N keystrokes would, when jump() does not
+     *  apply.  The settings of the pawled rotors other than the leftmost
+     *  depend only on one another, so they are eventually periodic in the
+     *  number of keystrokes; the leftmost just counts the keystrokes on
+     *  which the rotor to its right is at a notch.  Brent's algorithm
+     *  finds the length of the lead-in and of the period, after which the
+     *  settings after N keystrokes, and the count, follow from a walk of
+     *  at most one lead-in and two periods. */
+    private void skipPeriodic(long n) {
+        int first = _numRotors - _pawls;
+        int size = _myRotors[first].size();
+        int[] start = new int[_pawls];
+        for (int k = 0; k < _pawls; k++) {
+            start[k] = _myRotors[first + k].setting();
+        }
+
+        int[] tortoise = start.clone(), hare = start.clone();
+        long period = 1, power = 1, steps = 1;
+        stepSettings(hare);
+        while (!sameDriven(tortoise, hare) && steps < n) {
+            if (power == period) {
+                System.arraycopy(hare, 0, tortoise, 0, _pawls);
+                power *= 2;
+                period = 0;
+            }
+            stepSettings(hare);
+            period += 1;
+            steps += 1;
+        }
+        int[] pos = start.clone();
+        if (!sameDriven(tortoise, hare)) {
+            walkSettings(pos, n);
+        } else {
+            tortoise = start.clone();
+            hare = start.clone();
+            walkSettings(hare, period);
+            long leadIn = 0;
+            while (!sameDriven(tortoise, hare) && leadIn < n) {
+                stepSettings(tortoise);
+                stepSettings(hare);
+                leadIn += 1;
+            }
+            long pushes = walkSettings(pos, Math.min(leadIn, n));
+            if (n > leadIn) {
+                long turns = (n - leadIn) / period;
+                long perTurn = walkSettings(pos, period) % size;
+                pushes += turns % size * perTurn;
+                pushes += walkSettings(pos, (n - leadIn) % period);
+            }
+            if (_myRotors[first].rotates()) {
+                pos[0] = (int) ((start[0] + pushes % size) % size);
+            }
+        }
+        for (int k = 0; k < _pawls; k++) {
+            _myRotors[first + k].set(pos[k]);
+        }
+    }
+
+    /** Return true iff A and B, settings of my pawled rotors from the
+     *  leftmost, agree except perhaps for the leftmost. */
+    private boolean sameDriven(int[] a, int[] b) {
+        for (int k = 1; k < _pawls; k++) {
+            if (a[k] != b[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Apply stepSettings to SETTINGS T times, returning the number of
+     *  times the leftmost pawled rotor was pushed. */
+    private long walkSettings(int[] settings, long t) {
+        long pushes = 0;
+        for (long c = 0; c < t; c++) {
+            if (stepSettings(settings)) {
+                pushes += 1;
+            }
+        }
+        return pushes;
+    }
+
+    /** Change SETTINGS, the settings of my pawled rotors from the
+     *  leftmost, as advanceRotors would change the rotors themselves,
+     *  returning true iff the leftmost is pushed. */
+    private boolean stepSettings(int[] settings) {
+        int first = _numRotors - _pawls;
+        int last = _pawls - 1;
+        boolean pushed = false, pushedFirst = false;
+        for (int k = 0; k < last; k++) {
+            boolean push =
+                !pushed && _myRotors[first + k + 1].notchAt(settings[k + 1]);
+            if (push || pushed) {
+                if (k == 0) {
+                    pushedFirst = true;
+                }
+                advanceSetting(settings, k);
+            }
+            pushed = push;
+        }
+        advanceSetting(settings, last);
+        return pushedFirst;
+    }
+
+    /** Advance entry K of SETTINGS, the settings of my pawled rotors from
+     *  the leftmost, if that rotor rotates. */
+    private void advanceSetting(int[] settings, int k) {
+        Rotor rotor = _myRotors[_numRotors - _pawls + k];
+        if (rotor.rotates()) {
+            settings[k] = settings[k] + 1 == rotor.size() ? 0 : settings[k] + 1;
+        }
+    }
+
+    /** Return the unwrapped position of settled ROTOR, a self-stepping
+     *  rotor starting at START, after it has been pushed PULSES times and
+     *  at least one keystroke has passed.  PUSHEDLAST is true iff the
+     *  final push came on the last keystroke, too late for the rotor to
+     *  step off a notch it landed on. */
+    private static long settledPosition(Rotor rotor, long start, long pulses,
+                                        boolean pushedLast) {
+        if (pulses == 0) {
+            return rotor.notchAt((int) start) ? start + 1 : start;
+        }
+        long x = nonNotch(rotor, start - notches(rotor, start) + pulses) + 1;
+        if (rotor.notchAt((int) (x % rotor.size())) && !pushedLast) {
+            x += 1;
+        }
+        return x;
+    }
+
+    /** Return the number of notches of ROTOR at unwrapped positions in
+     *  [0, X). */
+    private static long notches(Rotor rotor, long x) {
+        int size = rotor.size();
+        long total = 0, below = 0;
+        for (int p = 0; p < size; p++) {
+            if (rotor.notchAt(p)) {
+                total += 1;
+                if (p < x % size) {
+                    below += 1;
+                }
+            }
+        }
+        return (x / size) * total + below;
+    }
+
+    /** Return the unwrapped position of the Mth (M >= 1) non-notch
+     *  setting of ROTOR, counting from position 0. */
+    private static long nonNotch(Rotor rotor, long m) {
+        int size = rotor.size();
+        long perTurn = size - notches(rotor, size);
+        long index = (m - 1) % perTurn;
+        long turns = (m - 1) / perTurn;
+        for (int p = 0; p < size; p++) {
+            if (!rotor.notchAt(p)) {
+                if (index == 0) {
+                    return turns * size + p;
+                }
+                index -= 1;
+            }
+        }
+        throw new AssertionError("missing non-notch setting");
+    }
+
+    /** Advance my rotors as for one keystroke, without converting. */
+    void step() {
+        advanceRotors(false);
+    }
+
+    /** Set OFFSETS[K] to the offset of the contacts of the rotor in slot K
+     *  from those of its permutation (its setting less its ring
+     *  setting), for each slot K. */
+    void offsets(int[] offsets) {
+        for (int k = 0; k < _numRotors; k++) {
+            offsets[k] = _myRotors[k].offset();
+        }
+    }
+
+    /** Return the result of passing C through my rotors and reflector,
+     *  without the plugboard, when they have the offsets OFFSETS (as
+     *  from offsets()).  Requires that I be compiled. */
+    int scramble(int[] offsets, int c) {
+        int n = _alphabet.size();
+        for (int i = _numRotors - 1; i >= 0; i = i - 1) {
+            c = _forward[i][offsets[i] * n + c];
+        }
+        for (int i = 1; i < _numRotors; i++) {
+            c = _backward[i][offsets[i] * n + c];
+        }
+        return c;
+    }
+
+    /** Returns the result of converting C through my compiled tables,
+     *  with my rotors already advanced. */
+    private int convertCompiled(int c) {
+        int n = _alphabet.size();
+        int input = _plugForward[c];
+        for (int i = _numRotors - 1; i >= 0; i = i - 1) {
+            input = _forward[i][_myRotors[i].offset() * n + input];
+        }
+        for (int i = 1; i < _numRotors; i++) {
+            input = _backward[i][_myRotors[i].offset() * n + input];
+        }
+        return _plugBackward[input];
+    }
+
     /** Returns the encoding/decoding of MSG, updating the state of
      *  the rotors accordingly. */
     String convert(String msg) {
-        StringBuilder output = new StringBuilder();
-        for (int i = 0; i < msg.length(); i++) {
-            char curr = msg.charAt(i);
+        char[] chars = msg.toCharArray();
+        convert(chars, 0, chars.length, chars);
+        return new String(chars);
+    }
+
+    /** Store the encoding/decoding of the LEN characters of IN starting at
+     *  OFF into the same positions of OUT, updating the state of the
+     *  rotors accordingly.  Spaces are copied unchanged.  IN and OUT may
+     *  be the same array. */
+    void convert(char[] in, int off, int len, char[] out) {
+        convert(in, off, out, off, len);
+    }
+
+    /** Store the encoding/decoding of the LEN characters of IN starting at
+     *  INOFF into OUT starting at OUTOFF, as for convert(char[], int, int,
+     *  char[]).  IN and OUT may be the same array only if INOFF is
+     *  OUTOFF. */
+    private void convert(char[] in, int inOff, char[] out, int outOff,
+                         int len) {
+        for (int i = 0; i < len; i++) {
+            char curr = in[inOff + i];
             if (curr == ' ') {
-                output.append(curr);
+                out[outOff + i] = curr;
             } else {
-                char tmp = _alphabet.toChar(convert(_alphabet.toInt(curr)));
-                output.append(tmp);
+                out[outOff + i] =
+                    _alphabet.toChar(convert(_alphabet.toInt(curr)));
+            }
+        }
+    }
+
+    /** Write the encoding/decoding of the remaining characters of IN to
+     *  OUT, as for convert(char[], int, int, char[]), advancing the
+     *  positions of both buffers. */
+    void convert(CharBuffer in, CharBuffer out) {
+        int len = in.remaining();
+        if (out.remaining() < len) {
+            throw new BufferOverflowException();
+        }
+        if (in.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            char[] src = in.array();
+            int inStart = in.arrayOffset() + in.position();
+            int outStart = out.arrayOffset() + out.position();
+            if (src == out.array() && inStart != outStart) {
+                src = Arrays.copyOfRange(src, inStart, inStart + len);
+                inStart = 0;
+            }
+            convert(src, inStart, out.array(), outStart, len);
+            in.position(in.position() + len);
+            out.position(out.position() + len);
+        } else {
+            while (in.hasRemaining()) {
+                char curr = in.get();
+                if (curr == ' ') {
+                    out.put(curr);
+                } else {
+                    out.put(_alphabet.toChar(convert(_alphabet.toInt(curr))));
+                }
+            }
+        }
+    }
+
+    /** Returns the encoding/decoding of MSG, exactly as convert(MSG)
+     *  would, and leaves my rotors as convert(MSG) would.  Long messages
+     *  are cut into chunks that are converted concurrently on POOL, each
+     *  by its own copy of me skipped ahead to the chunk's first
+     *  keystroke. */
+    String convert(String msg, ForkJoinPool pool) {
+        char[] chars = msg.toCharArray();
+        convert(chars, 0, chars.length, chars, pool);
+        return new String(chars);
+    }
+
+    /** Store the encoding/decoding of the LEN characters of IN starting at
+     *  OFF into the same positions of OUT, as convert(IN, OFF, LEN, OUT)
+     *  would, converting chunks of a long message concurrently on POOL. */
+    void convert(char[] in, int off, int len, char[] out,
+                 ForkJoinPool pool) {
+        int chunk = Math.max(MIN_CHUNK, len / (4 * pool.getParallelism()));
+        if (len <= chunk) {
+            convert(in, off, len, out);
+            return;
+        }
+        long[] firsts = new long[(len + chunk - 1) / chunk];
+        long keystrokes = 0;
+        for (int i = 0; i < len; i++) {
+            if (i % chunk == 0) {
+                firsts[i / chunk] = keystrokes;
             }
+            char curr = in[off + i];
+            if (curr != ' ') {
+                if (!_alphabet.contains(curr)) {
+                    skip(keystrokes);
+                    throw EnigmaException.error("out of range");
+                }
+                keystrokes += 1;
+            }
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int k = 0; k < firsts.length; k++) {
+            Machine worker = copy();
+            long first = firsts[k];
+            int start = off + k * chunk;
+            int end = Math.min(start + chunk, off + len);
+            tasks.add(pool.submit(() -> {
+                worker.skip(first);
+                worker.convert(in, start, end - start, out);
+            }));
         }
-        return output.toString();
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        skip(keystrokes);
     }
 
+    /** Fewest characters worth handing to a separate task in
+     *  convert(char[], int, int, char[], ForkJoinPool). */
+    private static final int MIN_CHUNK = 1 << 14;
+
     /** Common alphabet of my rotors. */
     private final Alphabet _alphabet;
     /** numRotors. */
@@ -147,16 +825,50 @@ class Machine {
     private Collection<Rotor> _allRotors;
     /** Plugboard. */
     private Permutation _plugboard;
+    /** The first of _allRotors with each name, by name. */
+    private final Map<String, Rotor> _rotorsByName;
     /** My rotors. */
     private Rotor[] _myRotors;
+    /** The rotors from _allRotors that my rotors were made from, by slot.
+     *  Never changed in place, so it may be shared with copies and
+     *  States. */
+    private Rotor[] _definitions;
+    /** True iff one of my pawled rotors has notches at adjacent
+     *  settings (see skip). */
+    private boolean _adjacentNotches;
+    /** Settings of my rotors, by slot, as last given to setRotors. */
+    private int[] _startSettings;
+    /** True iff I convert through precomputed tables. */
+    private boolean _compiled;
+    /** Forward conversion tables of my rotors, by slot. */
+    private int[][] _forward;
+    /** Backward conversion tables of my rotors, by slot. */
+    private int[][] _backward;
+    /** Plugboard mapping, indexed by input. */
+    private int[] _plugForward;
+    /** Inverse plugboard mapping, indexed by input. */
+    private int[] _plugBackward;
+
+    /** Return true iff my slots already hold the rotors named ROTORS. */
+    private boolean inserted(String[] rotors) {
+        if (rotors.length != _numRotors) {
+            return false;
+        }
+        for (int i = 0; i < _numRotors; i++) {
+            if (_definitions[i] == null
+                || _rotorsByName.get(rotors[i]) != _definitions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     /** Checks for duplicates and takes in a string of ROTORS. */
     private void checkDuplicate(String[] rotors) {
-        for (int i = 0; i < rotors.length; i++) {
-            for (int j = i + 1; j < rotors.length; j++) {
-                if (rotors[i].equals(rotors[j])) {
-                    throw EnigmaException.error("Duplicate rotor names");
-                }
+        HashSet<String> names = new HashSet<>();
+        for (String name : rotors) {
+            if (!names.add(name)) {
+                throw EnigmaException.error("Duplicate rotor names");
             }
         }
     }
@@ -0,0 +1,360 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the Machine class.
+ *  @author Devyanshi Agarwal
+ */
+public class MachineTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** Return a 5-slot, 3-pawl machine holding all the naval rotors,
+     *  set up as ROTORS with SETTING and PLUGBOARD. */
+    private Machine navalMachine(String[] rotors, String setting,
+                                 String plugboard) {
+        return navalMachine(rotors, setting, "", plugboard);
+    }
+
+    /** Return a 5-slot, 3-pawl machine holding allRotors(), set up as
+     *  ROTORS with SETTING, ring setting RING, and PLUGBOARD. */
+    private Machine navalMachine(String[] rotors, String setting,
+                                 String ring, String plugboard) {
+        return navalMachine(allRotors(), rotors, setting, ring, plugboard);
+    }
+
+    /** Return a 5-slot, 3-pawl machine holding the rotors ALL, set up as
+     *  ROTORS with SETTING, ring setting RING, and PLUGBOARD. */
+    private Machine navalMachine(Collection<Rotor> all, String[] rotors,
+                                 String setting, String ring,
+                                 String plugboard) {
+        Machine m = new Machine(UPPER, 5, 3, all);
+        m.insertRotors(rotors);
+        m.setRotors(setting, ring);
+        m.setPlugboard(new Permutation(plugboard, UPPER));
+        return m;
+    }
+
+    /** Return all the naval rotors, and X, wired as I but with notches at
+     *  adjacent settings. */
+    private Collection<Rotor> allRotors() {
+        ArrayList<Rotor> all = navalRotors();
+        all.add(new MovingRotor("X", new Permutation(NAVALA.get("I"), UPPER),
+                                "QRZA"));
+        return all;
+    }
+
+    /** Return a random message of LEN upper-case letters drawn from
+     *  a generator seeded with SEED. */
+    private String randomMessage(int len, long seed) {
+        Random random = new Random(seed);
+        StringBuilder msg = new StringBuilder();
+        for (int i = 0; i < len; i += 1) {
+            msg.append(UPPER_STRING.charAt(random.nextInt(26)));
+        }
+        return msg.toString();
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testKnownMessage() {
+        Machine m = navalMachine(new String[] {"B", "Beta", "III", "IV", "I"},
+                                 "AXLE", "(HQ) (EX) (IP) (TR) (BY)");
+        assertEquals("QVPQSOKOILPUBKJZPISFXDW",
+                     m.convert("FROMHISSHOULDERHIAWATHA"));
+    }
+
+    @Test
+    public void testCompiledMatchesInterpreted() {
+        String[][] orders = {
+            {"B", "Beta", "III", "IV", "I"},
+            {"C", "Gamma", "VI", "VII", "VIII"},
+            {"B", "Beta", "I", "II", "V"},
+        };
+        String[][] keys = {
+            {"AADQ", "", ""},
+            {"AADQ", "", "(AQ) (EP) (TZ)"},
+            {"XKDQ", "BZQE", ""},
+            {"MEVZ", "AYCJ", "(AQ) (EP) (TZ) (BX) (CK) (LW)"},
+        };
+        String msg = randomMessage(5000, 61);
+        for (String[] order : orders) {
+            for (String[] key : keys) {
+                Machine plain = navalMachine(order, key[0], key[1], key[2]);
+                Machine compiled =
+                    navalMachine(order, key[0], key[1], key[2]);
+                compiled.setCompiled(true);
+                assertTrue(compiled.compiled());
+                assertEquals(plain.convert(msg), compiled.convert(msg));
+            }
+        }
+    }
+
+    @Test
+    public void testWideAlphabetNotCompiled() {
+        StringBuilder chars = new StringBuilder(), pairs = new StringBuilder();
+        for (int i = 0; i < Permutation.MAX_SHIFTED_SIZE + 2; i += 2) {
+            char a = (char) ('\u0100' + i), b = (char) (a + 1);
+            chars.append(a).append(b);
+            pairs.append('(').append(a).append(b).append(')');
+        }
+        Alphabet wide = new Alphabet(chars.toString());
+        ArrayList<Rotor> all = new ArrayList<>();
+        all.add(new Reflector("R", new Permutation(pairs.toString(), wide)));
+        all.add(new MovingRotor("M", new Permutation("", wide), ""));
+        Machine m = new Machine(wide, 2, 1, all);
+        m.insertRotors(new String[] { "R", "M" });
+        m.setRotors(String.valueOf(chars.charAt(0)), "");
+        m.setPlugboard(new Permutation("", wide));
+        m.setCompiled(true);
+        assertFalse(m.compiled());
+        assertEquals(chars.charAt(1), m.convert(chars.substring(0, 1))
+                                       .charAt(0));
+    }
+
+    @Test
+    public void testBulkConvert() {
+        String[] order = {"B", "Beta", "III", "IV", "I"};
+        String plugboard = "(HQ) (EX) (IP) (TR) (BY)";
+        String msg = "FROM HIS SHOULDER HIAWATHA";
+        String expected = navalMachine(order, "AXLE", plugboard).convert(msg);
+        assertEquals("QVPQ SOK OILPUBKJ ZPISFXDW", expected);
+
+        char[] chars = ("##" + msg).toCharArray();
+        navalMachine(order, "AXLE", plugboard).convert(chars, 2, msg.length(),
+                                                       chars);
+        assertEquals("##" + expected, new String(chars));
+
+        CharBuffer in = CharBuffer.wrap(msg);
+        CharBuffer out = ByteBuffer.allocateDirect(2 * msg.length())
+            .asCharBuffer();
+        navalMachine(order, "AXLE", plugboard).convert(in, out);
+        assertEquals(0, in.remaining());
+        out.flip();
+        assertEquals(expected, out.toString());
+
+        char[] shared = ("##" + msg + "##").toCharArray();
+        in = CharBuffer.wrap(shared, 2, msg.length());
+        out = CharBuffer.wrap(shared, 4, msg.length());
+        navalMachine(order, "AXLE", plugboard).convert(in, out);
+        assertEquals(expected, new String(shared, 4, msg.length()));
+    }
+
+    @Test
+    public void testBulkConvertError() {
+        String[] order = {"B", "Beta", "III", "IV", "I"};
+        String plugboard = "(HQ) (EX) (IP) (TR) (BY)";
+        CharBuffer in = CharBuffer.wrap("FROM H1S");
+        CharBuffer out = CharBuffer.wrap("........".toCharArray());
+        try {
+            navalMachine(order, "AXLE", plugboard).convert(in, out);
+            fail("converted a character outside the alphabet");
+        } catch (EnigmaException excp) {
+            assertEquals("QVPQ S..", new String(out.array()));
+        }
+    }
+
+    @Test
+    public void testSeek() {
+        String[][] orders = {
+            {"B", "Beta", "III", "IV", "I"},
+            {"C", "Gamma", "VI", "VII", "VIII"},
+        };
+        String msg = randomMessage(20000, 17);
+        for (String[] order : orders) {
+            String expected = navalMachine(order, "AEDU", "").convert(msg);
+            Machine m = navalMachine(order, "AEDU", "");
+            for (int start : new int[] {0, 1, 25, 650, 17577, 19999}) {
+                m.seek(start);
+                assertEquals(expected.substring(start),
+                             m.convert(msg.substring(start)));
+            }
+        }
+    }
+
+    @Test
+    public void testSeekAdjacentNotches() {
+        String[][] orders = {
+            {"B", "Beta", "X", "IV", "VI"},
+            {"C", "Gamma", "VI", "X", "I"},
+            {"B", "Beta", "II", "VII", "X"},
+            {"C", "Gamma", "X", "VIII", "II"},
+        };
+        Random random = new Random(29);
+        for (int trial = 0; trial < 40; trial++) {
+            String[] order = orders[trial % orders.length];
+            String setting = randomMessage(4, random.nextLong());
+            String ring = randomMessage(4, random.nextLong());
+            int n = random.nextInt(trial < 20 ? 5000 : 200000);
+            Machine sought = navalMachine(order, setting, ring, "");
+            Machine stepped = navalMachine(order, setting, ring, "");
+            sought.seek(n);
+            for (int i = 0; i < n; i++) {
+                stepped.step();
+            }
+            String msg = randomMessage(40, trial);
+            assertEquals(stepped.convert(msg), sought.convert(msg));
+        }
+    }
+
+    @Test
+    public void testSkipFarAdjacentNotches() {
+        String[] order = {"C", "Gamma", "VI", "X", "I"};
+        Random random = new Random(31);
+        for (int trial = 0; trial < 20; trial++) {
+            long a = random.nextLong() >>> 24, b = random.nextLong() >>> 24;
+            String setting = randomMessage(4, random.nextLong());
+            Machine whole = navalMachine(order, setting, "QRST", "");
+            Machine parts = navalMachine(order, setting, "QRST", "");
+            Machine last = navalMachine(order, setting, "QRST", "");
+            whole.skip(a + b);
+            parts.skip(a);
+            parts.skip(b);
+            last.seek(a + b - 1);
+            last.step();
+            String msg = randomMessage(60, trial);
+            String expected = whole.convert(msg);
+            assertEquals(expected, parts.convert(msg));
+            assertEquals(expected, last.convert(msg));
+        }
+    }
+
+    @Test
+    public void testParallelConvertAdjacentNotches() {
+        String[] order = {"B", "Beta", "II", "VII", "X"};
+        String msg = randomMessage(200000, 8);
+        Machine sequential = navalMachine(order, "ZEDU", "(AQ) (EP)");
+        Machine parallel = navalMachine(order, "ZEDU", "(AQ) (EP)");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(sequential.convert(msg), parallel.convert(msg, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelConvert() {
+        String[] order = {"C", "Gamma", "VI", "VII", "VIII"};
+        String msg = randomMessage(300000, 5).replace('Q', ' ');
+        Machine sequential = navalMachine(order, "ZEDU", "(AQ) (EP)");
+        Machine parallel = navalMachine(order, "ZEDU", "(AQ) (EP)");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(sequential.convert(msg), parallel.convert(msg, pool));
+            assertEquals(sequential.convert("HELLOWORLD"),
+                         parallel.convert("HELLOWORLD"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSnapshotRestore() {
+        Machine m = navalMachine(new String[] {"B", "Beta", "III", "IV", "I"},
+                                 "AXLE", "(HQ) (EX) (IP) (TR) (BY)");
+        m.setRotors("AXLE", "BCDE");
+        String msg = randomMessage(2000, 6);
+        Machine.State start = m.snapshot();
+        String expected = m.convert(msg);
+        Machine.State end = m.snapshot();
+        m.insertRotors(new String[] {"C", "Gamma", "VI", "VII", "VIII"});
+        m.setRotors("QQQQ", "");
+        m.setPlugboard(new Permutation("", UPPER));
+        m.convert(msg);
+        m.restore(start);
+        assertEquals(expected, m.convert(msg));
+        m.restore(start);
+        Machine other = m.copy();
+        other.restore(end);
+        m.skip(2000);
+        assertEquals(other.convert(msg), m.convert(msg));
+    }
+
+    @Test
+    public void testSharedDefinitions() {
+        String msg = randomMessage(1000, 7);
+        Machine first = navalMachine(new String[] {"B", "Beta", "I", "II",
+                                                   "III"}, "AAAA", "(AB)");
+        Machine second = first.copy();
+        second.insertRotors(new String[] {"B", "Gamma", "III", "II", "I"});
+        second.setRotors("ZZZZ", "");
+        String expected1 = first.copy().convert(msg);
+        String expected2 = second.copy().convert(msg);
+        StringBuilder out1 = new StringBuilder();
+        StringBuilder out2 = new StringBuilder();
+        for (int i = 0; i < msg.length(); i += 1) {
+            out1.append(first.convert(msg.substring(i, i + 1)));
+            out2.append(second.convert(msg.substring(i, i + 1)));
+        }
+        assertEquals(expected1, out1.toString());
+        assertEquals(expected2, out2.toString());
+    }
+
+    @Test
+    public void testSharedRotorCollection() {
+        String[] order = {"B", "Beta", "VI", "VII", "VIII"};
+        String msg = randomMessage(2000, 11);
+        String expected = navalMachine(order, "AZZY", "BCDE", "(AB)")
+            .convert(msg);
+        Collection<Rotor> all = allRotors();
+        Machine first = navalMachine(all, order, "AZZY", "BCDE", "(AB)");
+        Machine second = navalMachine(all, order, "AZZY", "BCDE", "(AB)");
+        StringBuilder out1 = new StringBuilder();
+        StringBuilder out2 = new StringBuilder();
+        for (int i = 0; i < msg.length(); i += 1) {
+            out1.append(first.convert(msg.substring(i, i + 1)));
+            if (i % 3 == 0) {
+                out2.append(second.convert(msg.substring(i / 3, i / 3 + 1)));
+            }
+        }
+        out2.append(second.convert(msg.substring(out2.length())));
+        assertEquals(expected, out1.toString());
+        assertEquals(expected, out2.toString());
+        Machine third = navalMachine(all, order, "AZZY", "BCDE", "(AB)");
+        assertEquals(expected, third.convert(msg));
+    }
+
+    @Test
+    public void testInsertRotorsErrors() {
+        Machine m = navalMachine(new String[] {"B", "Beta", "III", "IV", "I"},
+                                 "AXLE", "");
+        String[][] bad = {
+            {"X", "Beta", "III", "IV", "I"},
+            {"B", "Beta", "III", "IV", "IX"},
+            {"B", "Beta", "III", "III", "I"},
+            {"Beta", "B", "III", "IV", "I"},
+        };
+        for (String[] rotors : bad) {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try {
+                    m.insertRotors(rotors);
+                    fail("accepted " + String.join(" ", rotors));
+                } catch (EnigmaException excp) {
+                    /* Expected. */
+                }
+            }
+        }
+        Machine fresh =
+            navalMachine(new String[] {"B", "Beta", "III", "IV", "I"},
+                         "AXLE", "");
+        assertEquals(fresh.convert("HELLOWORLD"), m.convert("HELLOWORLD"));
+    }
+}
@@ -1,74 +1,234 @@
 package enigma;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.io.Reader;
 
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static enigma.EnigmaException.*;
 
 /** Enigma simulator.
  *  @author Devyanshi Agarwal
  */
-public final class Main {
+public final class Main implements Closeable {
 
     /** Process a sequence of encryptions and decryptions, as
-     *  specified by ARGS, where 1 <= ARGS.length <= 3.
+     *  specified by ARGS, where 1 <= ARGS.length <= 3, not counting
+     *  options.
      *  ARGS[0] is the name of a configuration file.
      *  ARGS[1] is optional; when present, it names an input file
      *  containing messages.  Otherwise, input comes from the standard
      *  input.  ARGS[2] is optional; when present, it names an output
      *  file for processed messages.  Otherwise, output goes to the
      *  standard output. Exits normally if there are no errors in the input;
-     *  otherwise with code 1. */
+     *  otherwise with code 1.
+     *  Options, which start with "--", may appear anywhere in ARGS:
+     *    --continuous  carries five-letter groups across line breaks
+     *                  within a message.
+     *    --mmap        memory-maps the input file and handles it as
+     *                  single bytes, when the alphabet and rotor names
+     *                  are ASCII.
+     *    --cache[=DIR] keeps the parsed form of configuration files in
+     *                  DIR (by default, .cache/enigma in the home
+     *                  directory) and reuses it when the same
+     *                  configuration is seen again.  DIR must belong to
+     *                  the user and be writable by no one else.
+     *    --sessions[=N] converts the messages following each settings
+     *                  line concurrently on N threads (by default, one
+     *                  per processor), writing them out in input order.
+     *  When the system property enigma.metrics is true, counts of the work
+     *  done (see Metrics) are published through JMX while it runs and
+     *  printed on the standard error when it is done. */
     public static void main(String... args) {
         try {
-            new enigma.Main(args).process();
+            if (Metrics.ENABLED) {
+                Metrics.register();
+                Metrics.addReporter(new Metrics.PrintReporter(System.err));
+            }
+            try (Main main = new Main(args)) {
+                main.process();
+            }
             return;
         } catch (EnigmaException excp) {
             System.err.printf("Error: %s%n", excp.getMessage());
+        } finally {
+            if (Metrics.ENABLED) {
+                Metrics.report();
+            }
         }
         System.exit(1);
     }
 
     /** Check ARGS and open the necessary files (see comment on main). */
     Main(String[] args) {
+        ArrayList<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                option(arg);
+            } else {
+                files.add(arg);
+            }
+        }
+        args = files.toArray(new String[0]);
         if (args.length < 1 || args.length > 3) {
             throw error("Only 1, 2, or 3 command-line arguments allowed");
         }
 
+        _configName = args[0];
         _config = getInput(args[0]);
 
         if (args.length > 1) {
-            _input = getInput(args[1]);
+            _inputChannel = getInputChannel(args[1]);
         } else {
-            _input = new Scanner(System.in);
+            _inputChannel = Channels.newChannel(System.in);
         }
 
         if (args.length > 2) {
-            _output = getOutput(args[2]);
+            try {
+                _outputChannel = getOutputChannel(args[2]);
+            } catch (EnigmaException excp) {
+                close();
+                throw excp;
+            }
         } else {
-            _output = System.out;
+            _outputChannel = Channels.newChannel(System.out);
         }
     }
 
-    /** Return a Scanner reading from the file named NAME. */
-    private Scanner getInput(String name) {
+    /** Close the input and output files named on the command line, if
+     *  any.  The standard input and output are left open. */
+    @Override
+    public void close() {
         try {
-            return new Scanner(new File(name));
+            if (_inputChannel instanceof FileChannel) {
+                _inputChannel.close();
+            }
+            if (_outputChannel instanceof FileChannel) {
+                _outputChannel.close();
+            }
+        } catch (IOException excp) {
+            throw error("could not close: %s", excp.getMessage());
+        }
+    }
+
+    /** Set up _input and _output on my input and output channels, reading
+     *  and writing bytes directly if --mmap was given, the input is a
+     *  file, and every character I handle is ASCII. */
+    private void openStreams() {
+        if (_mmap && _inputChannel instanceof FileChannel && ascii()) {
+            try {
+                _input = new MappedReader((FileChannel) _inputChannel);
+            } catch (IOException excp) {
+                throw error("could not map input: %s", excp.getMessage());
+            }
+            _output = new GroupWriter(new ByteChannelWriter(_outputChannel),
+                                      _continuous);
+        } else {
+            _input = Channels.newReader(_inputChannel,
+                                        Charset.defaultCharset().newDecoder(),
+                                        BLOCK_SIZE);
+            _output = new GroupWriter(
+                Channels.newWriter(_outputChannel,
+                                   Charset.defaultCharset().newEncoder(),
+                                   BLOCK_SIZE), _continuous);
+        }
+    }
+
+    /** Returns true iff my alphabet and rotor names are ASCII, so that
+     *  input and output characters are single bytes. */
+    private boolean ascii() {
+        for (int i = 0; i < _alphabet.size(); i++) {
+            if (_alphabet.toChar(i) >= 0x80) {
+                return false;
+            }
+        }
+        for (Rotor rotor : _allRotors) {
+            for (char c : rotor.name().toCharArray()) {
+                if (c >= 0x80) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Record the command-line option OPTION. */
+    private void option(String option) {
+        switch (option) {
+        case "--continuous":
+            _continuous = true;
+            break;
+        case "--mmap":
+            _mmap = true;
+            break;
+        case "--cache":
+            _cacheDir = new File(System.getProperty("user.home"),
+                                 DEFAULT_CACHE);
+            break;
+        case "--sessions":
+            _threads = Runtime.getRuntime().availableProcessors();
+            break;
+        default:
+            if (option.startsWith("--cache=")) {
+                _cacheDir = new File(option.substring(8));
+                break;
+            }
+            if (option.startsWith("--sessions=")) {
+                try {
+                    _threads = Integer.parseInt(option.substring(11));
+                } catch (NumberFormatException excp) {
+                    _threads = 0;
+                }
+                if (_threads <= 0) {
+                    throw error("bad thread count in %s", option);
+                }
+                break;
+            }
+            throw error("unknown option %s", option);
+        }
+    }
+
+    /** Return the contents of the file named NAME. */
+    private byte[] getInput(String name) {
+        try {
+            return Files.readAllBytes(Paths.get(name));
         } catch (IOException excp) {
             throw error("could not open %s", name);
         }
     }
 
-    /** Return a PrintStream writing to the file named NAME. */
-    private PrintStream getOutput(String name) {
+    /** Return a channel reading from the file named NAME. */
+    private FileChannel getInputChannel(String name) {
         try {
-            return new PrintStream(new File(name));
+            return FileChannel.open(Paths.get(name));
+        } catch (IOException excp) {
+            throw error("could not open %s", name);
+        }
+    }
+
+    /** Return a channel writing to the file named NAME. */
+    private FileChannel getOutputChannel(String name) {
+        try {
+            return FileChannel.open(Paths.get(name), StandardOpenOption.WRITE,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
         } catch (IOException excp) {
             throw error("could not open %s", name);
         }
@@ -76,183 +236,327 @@ public final class Main {
 
     /** Configure an Enigma machine from the contents of configuration
      *  file _config and apply it to the messages in _input, sending the
-     *  results to _output. */
-    private void process() {
+     *  results to _output.  Input is read in blocks of BLOCK_SIZE
+     *  characters; message text is converted in place and written out
+     *  as it arrives, so lines of any length use constant memory.  With
+     *  --sessions, each message is instead collected whole and converted
+     *  on a worker thread by a machine of its own. */
+    void process() {
         Machine m = readConfig();
-        Collection<Rotor> test =  _allRotors;
-        String first = _input.nextLine();
-        char[] tmp = first.toCharArray();
-        if (tmp[0] != '*') {
-            throw EnigmaException.error("Incorrect line in config");
-        }
-        if (_numRotors < _numPawls) {
-            throw EnigmaException.error("Num pawls < numRotors");
+        openStreams();
+        if (_threads > 0) {
+            _workers = Executors.newFixedThreadPool(_threads, r -> {
+                Thread worker = new Thread(r, "enigma-session");
+                worker.setDaemon(true);
+                return worker;
+            });
+            _sessions = new ArrayDeque<>();
         }
-        setUp(m, first);
-        while (_input.hasNextLine()) {
-            String next = _input.nextLine();
-            if (!next.equals("")) {
-                char[] temp = next.toCharArray();
-                if (temp[0] == '*') {
-                    setUp(m, next);
-                    if (_input.hasNextLine()) {
-                        next = _input.nextLine();
+        try {
+            char[] buf = new char[BLOCK_SIZE];
+            StringBuilder settings = null;
+            boolean lineStart = true, afterCR = false, started = false;
+            for (int n = _input.read(buf); n >= 0; n = _input.read(buf)) {
+                int i = 0;
+                if (afterCR && n > 0 && buf[0] == '\n') {
+                    i = 1;
+                }
+                afterCR = false;
+                while (i < n) {
+                    if (lineStart) {
+                        lineStart = false;
+                        if (buf[i] == '*') {
+                            settings = new StringBuilder();
+                        } else if (!started) {
+                            throw error("Incorrect line in config");
+                        }
+                    }
+                    int end = i;
+                    while (end < n && buf[end] != '\n' && buf[end] != '\r') {
+                        end += 1;
+                    }
+                    if (settings != null) {
+                        settings.append(buf, i, end - i);
                     } else {
+                        text(m, buf, i, end - i);
+                    }
+                    if (end == n) {
                         break;
                     }
+                    if (settings != null) {
+                        started = setUp(m, settings, started);
+                        settings = null;
+                    } else {
+                        endLine();
+                    }
+                    lineStart = true;
+                    if (buf[end] == '\r') {
+                        if (end + 1 == n) {
+                            afterCR = true;
+                        } else if (buf[end + 1] == '\n') {
+                            end += 1;
+                        }
+                    }
+                    i = end + 1;
+                }
+            }
+            if (settings != null) {
+                started = setUp(m, settings, started);
+            } else if (!lineStart) {
+                endLine();
+            }
+            if (!started) {
+                throw error("Incorrect line in config");
+            }
+            if (Metrics.ENABLED && _workers == null) {
+                Metrics.message(System.nanoTime() - _messageStart);
+            }
+            if (_workers != null) {
+                submit(m);
+                while (!_sessions.isEmpty()) {
+                    finishSession();
                 }
             }
-            printMessageLine(m.convert(next));
+        } catch (IOException excp) {
+            throw error("I/O error: %s", excp.getMessage());
+        } finally {
+            if (_workers != null) {
+                _workers.shutdownNow();
+            }
+            try {
+                _output.flush();
+            } catch (IOException excp) {
+                throw error("could not write output: %s", excp.getMessage());
+            }
         }
     }
 
-    /** Return an Enigma machine configured from the contents of configuration
-     *  file _config. */
-    private Machine readConfig() {
-        try {
-            _alphabet = alpha(_config.next());
-            _numRotors = numRotors();
-            _numPawls = numPawls(_numRotors);
-            _allRotors = new ArrayList<>();
-            if (!_config.hasNext()) {
-                throw EnigmaException.error("Incorrect config");
+    /** Set M according to the settings line SETTINGS, first checking the
+     *  machine configuration if STARTED is false (M has not yet been set
+     *  up).  With --sessions, instead hand the previous message to a
+     *  worker and start collecting a new one.  Returns true. */
+    private boolean setUp(Machine m, StringBuilder settings, boolean started)
+        throws IOException {
+        if (!started && _numRotors < _numPawls) {
+            throw EnigmaException.error("Num pawls < numRotors");
+        }
+        if (_workers != null) {
+            submit(m);
+            _settings = settings.toString();
+            _text = new StringBuilder();
+        } else {
+            if (Metrics.ENABLED) {
+                long now = System.nanoTime();
+                if (started) {
+                    Metrics.message(now - _messageStart);
+                }
+                _messageStart = now;
             }
-            String next = _config.next();
-            while (_config.hasNext()) {
-                String rotorDesc = "";
-                String name = next;
-                String description = _config.next();
-                String perm = "";
-                if (_config.hasNext()) {
-                    next = _config.next();
-                    while (containsBracket(next)) {
-                        if (!_config.hasNext()) {
-                            checkPerm(next);
-                            perm += next;
-                            break;
-                        } else {
-                            checkPerm(next);
-                            perm += next;
-                            next = _config.next();
-                        }
-                    }
+            setUp(m, settings.toString());
+            _output.endMessage();
+        }
+        return true;
+    }
+
+    /** Convert the LEN characters of message text at BUF[OFF] with M and
+     *  write them out, or with --sessions, add them to the current
+     *  message. */
+    private void text(Machine m, char[] buf, int off, int len)
+        throws IOException {
+        if (_workers != null) {
+            _text.append(buf, off, len);
+        } else {
+            m.convert(buf, off, len, buf);
+            _output.write(buf, off, len);
+        }
+    }
+
+    /** End the current line of message text. */
+    private void endLine() throws IOException {
+        if (_workers != null) {
+            _text.append('\n');
+        } else {
+            _output.endLine();
+        }
+    }
+
+    /** Hand the message being collected, if any, to a worker that
+     *  converts it with a copy of M, first writing out finished messages
+     *  if MAX_SESSIONS_PER_THREAD per thread are already waiting. */
+    private void submit(Machine m) throws IOException {
+        if (_settings == null) {
+            return;
+        }
+        while (_sessions.size() >= MAX_SESSIONS_PER_THREAD * _threads) {
+            finishSession();
+        }
+        String settings = _settings;
+        StringBuilder text = _text;
+        _sessions.add(_workers.submit(() -> convertSession(m, settings,
+                                                           text)));
+        _settings = null;
+        _text = null;
+    }
+
+    /** A message converted by a worker. */
+    private static final class Session {
+        /** The converted lines, each ending in a newline, followed by
+         *  unconverted text if conversion failed. */
+        private char[] _lines;
+        /** Length of the converted lines in _lines. */
+        private int _end;
+        /** The error that stopped conversion, or null. */
+        private EnigmaException _error;
+    }
+
+    /** Return the lines of TEXT, each ending in a newline, converted by a
+     *  copy of BASE set up according to SETTINGS.  If a line cannot be
+     *  converted, the result holds the lines before it and the error. */
+    private Session convertSession(Machine base, String settings,
+                                   StringBuilder text) {
+        long begun = Metrics.ENABLED ? System.nanoTime() : 0;
+        Session result = new Session();
+        char[] lines = new char[text.length()];
+        text.getChars(0, lines.length, lines, 0);
+        result._lines = lines;
+        try {
+            Machine m = base.copy();
+            setUp(m, settings);
+            for (int end = 0; end < lines.length; end += 1) {
+                if (lines[end] == '\n') {
+                    m.convert(lines, result._end, end - result._end, lines);
+                    result._end = end + 1;
                 }
-                String fullDesc = name + " " + description + " " + perm;
-                _allRotors.add(readRotor(fullDesc));
             }
-            return new Machine(_alphabet, _numRotors, _numPawls, _allRotors);
-        } catch (NoSuchElementException excp) {
-            throw error("configuration file truncated");
+        } catch (EnigmaException excp) {
+            result._error = excp;
         }
+        if (Metrics.ENABLED) {
+            Metrics.message(System.nanoTime() - begun);
+        }
+        return result;
     }
 
-    /** Return a rotor, reading its ROTORDESCRIPTION from _config. */
-    private Rotor readRotor(String rotorDescription) {
+    /** Wait for the oldest message handed to a worker and write it out,
+     *  up to the line where its conversion failed, if it did. */
+    private void finishSession() throws IOException {
+        Session result;
         try {
-            Scanner rotor = new Scanner(rotorDescription);
-            String name = rotor.next();
-            String description = rotor.next();
-            String permutation = "";
-            if (rotor.hasNext()) {
-                permutation = rotor.next();
+            result = _sessions.remove().get();
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof EnigmaException) {
+                throw (EnigmaException) excp.getCause();
             }
-            Permutation perm = new Permutation(permutation, _alphabet);
-            char[] descArr = description.toCharArray();
-            if (descArr[0] == 'M') {
-                String notches = notches(descArr);
-                return new MovingRotor(name, perm, notches);
-            } else if (descArr[0] == 'N') {
-                return new FixedRotor(name, perm);
-            } else if (descArr[0] == 'R') {
-                return new Reflector(name, perm);
-            } else {
-                throw EnigmaException.error("wrong rotor type");
+            throw error("conversion failed: %s", excp.getCause());
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw error("interrupted");
+        }
+        _output.endMessage();
+        char[] lines = result._lines;
+        for (int start = 0, end = 0; end < result._end; end += 1) {
+            if (lines[end] == '\n') {
+                _output.write(lines, start, end - start);
+                _output.endLine();
+                start = end + 1;
+            }
+        }
+        if (result._error != null) {
+            throw result._error;
+        }
+    }
+
+    /** Return an Enigma machine configured from the contents of configuration
+     *  file _config, or from its entry in the cache, if --cache was given
+     *  and there is one. */
+    Machine readConfig() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        ConfigCache cache = null;
+        if (_cacheDir != null) {
+            cache = new ConfigCache(_cacheDir, _config);
+        }
+        if (cache != null && cache.load()) {
+            _alphabet = cache.alphabet();
+            _numRotors = cache.numRotors();
+            _numPawls = cache.numPawls();
+            _allRotors = cache.rotors();
+        } else {
+            char[] text =
+                new String(_config, Charset.defaultCharset()).toCharArray();
+            ConfigParser parser = new ConfigParser(_configName, text,
+                                                   text.length);
+            parser.parse();
+            _alphabet = parser.alphabet();
+            _numRotors = parser.numRotors();
+            _numPawls = parser.numPawls();
+            _allRotors = parser.rotors();
+            if (cache != null) {
+                cache.save(_alphabet, _numRotors, _numPawls, _allRotors);
             }
-        } catch (NoSuchElementException excp) {
-            throw error("bad rotor description");
         }
+        if (Metrics.ENABLED) {
+            Metrics.configParse(System.nanoTime() - start);
+        }
+        Machine m = new Machine(_alphabet, _numRotors, _numPawls, _allRotors);
+        m.setCompiled(true);
+        _plugboards = new PlugboardCache(_alphabet, MAX_PLUGBOARDS);
+        return m;
     }
 
     /** Set M according to the specification given on SETTINGS,
-     *  which must have the format specified in the assignment. */
+     *  which must have the format specified in the assignment.  M keeps
+     *  its rotors if SETTINGS names the ones it already has, and
+     *  plugboards are shared between settings lines that describe the
+     *  same one. */
     private void setUp(Machine M, String settings) {
         String ring = "";
-        _plugboard = "";
-        Scanner set = new Scanner(settings);
+        StringBuilder plugboard = new StringBuilder();
+        ArrayList<String> fields = fields(settings);
+        if (fields.size() < _numRotors + 2) {
+            throw EnigmaException.error("settings line too short");
+        }
         String[] myRotors = new String[_numRotors];
-        set.next();
         for (int i = 0; i < myRotors.length; i++) {
-            myRotors[i] = set.next();
+            myRotors[i] = fields.get(i + 1);
         }
         M.insertRotors(myRotors);
-        String setting = set.next();
+        String setting = fields.get(_numRotors + 1);
         if (setting.length() > _numRotors || setting.length() < _numPawls) {
             throw EnigmaException.error("incorrect setting");
         }
-        while (set.hasNext()) {
-            String next = set.next();
+        for (int i = _numRotors + 2; i < fields.size(); i++) {
+            String next = fields.get(i);
             if (!containsBracket(next)) {
                 ring = next;
             } else if (checkPlugboard(next)) {
-                _plugboard += next;
+                plugboard.append(next);
             }
         }
         M.setRotors(setting, ring);
-        Permutation p = new Permutation(_plugboard, _alphabet);
-        M.setPlugboard(p);
+        M.setPlugboard(_plugboards.get(plugboard));
+        if (Metrics.ENABLED) {
+            Metrics.settingsChange();
+        }
     }
 
-    /** Print MSG in groups of five (except that the last group may
-     *  have fewer letters). */
-    private void printMessageLine(String msg) {
-        msg = msg.replace(" ", "");
-        StringBuilder newMsg = new StringBuilder(msg);
-        int len = newMsg.length();
-        int spaces = 0;
-        for (int i = 0; i < len; i++) {
-            if (i != 0 && i % 5 == 0) {
-                newMsg.insert(i + spaces, " ");
-                spaces += 1;
+    /** Return the whitespace-separated fields of LINE. */
+    private ArrayList<String> fields(String line) {
+        ArrayList<String> fields = new ArrayList<>();
+        int n = line.length();
+        for (int i = 0; i < n; i++) {
+            if (!Character.isWhitespace(line.charAt(i))) {
+                int start = i;
+                while (i < n && !Character.isWhitespace(line.charAt(i))) {
+                    i += 1;
+                }
+                fields.add(line.substring(start, i));
             }
         }
-        _output.println(newMsg);
+        return fields;
     }
 
     /** HELPER FUNCTIONS */
 
-    /**Finds the alphabet by taking in ALPHABET and returns new ALPHABET.*/
-    private Alphabet alpha(String alphabet) {
-        char[] alpha = alphabet.toCharArray();
-        for (char character : alpha) {
-            if (character == '(' || character == ')' || character == '*') {
-                throw error("Alphabet cannot contain '(', ')' or '*'");
-            }
-        }
-        return new Alphabet(alphabet);
-    }
-    /**Finds the NUM ROTORS returns NUM.*/
-    private int numRotors() {
-        if (!_config.hasNextInt()) {
-            throw EnigmaException.error("Num rotors not available");
-        }
-        int num = _config.nextInt();
-        if (num <= 0) {
-            throw EnigmaException.error("Num rotors cannot be <= 0");
-        }
-        return num;
-    }
-    /**Takes in NUMROTORS and returns NUM PAWLS.*/
-    private int numPawls(int numRotors) {
-        if (!_config.hasNextInt()) {
-            throw EnigmaException.error("Num pawls not available");
-        }
-        int num = _config.nextInt();
-        if (num > numRotors) {
-            throw EnigmaException.error(
-                    "Num pawls cannot be less than numRotors");
-        }
-        return num;
-    }
     /**Checks the INPUT type of permutation.*/
     private void checkPerm(String input) {
         char[] perm = input.toCharArray();
@@ -263,17 +567,6 @@ public final class Main {
             throw EnigmaException.error("Incorrect cycle type");
         }
     }
-    /**Returns a string of notches by taking in its DESCRIPTION.*/
-    private String notches(char[] description) {
-        if (description.length == 1) {
-            throw EnigmaException.error("Moving rotor has a notch");
-        }
-        String notch = "";
-        for (int i = 1; i < description.length; i++) {
-            notch += description[i];
-        }
-        return notch;
-    }
     /**Checks INPUT type pf permutations returns TRUE or FALSE.*/
     private boolean containsBracket(String input) {
         char[] str = input.toCharArray();
@@ -299,14 +592,66 @@ public final class Main {
     /** Alphabet used in this machine. */
     private Alphabet _alphabet;
 
+    /** Characters read from the input at a time. */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /** Channel from which input messages come. */
+    private ReadableByteChannel _inputChannel;
+
+    /** Channel to which encoded/decoded messages go. */
+    private WritableByteChannel _outputChannel;
+
     /** Source of input messages. */
-    private Scanner _input;
+    private Reader _input;
+
+    /** Contents of the machine configuration file. */
+    private byte[] _config;
+
+    /** Name of the machine configuration file. */
+    private String _configName;
+
+    /** File for encoded/decoded messages, in groups of five. */
+    private GroupWriter _output;
+
+    /** True iff groups continue across line breaks within a message. */
+    private boolean _continuous;
+
+    /** True iff an input file should be memory-mapped. */
+    private boolean _mmap;
 
-    /** Source of machine configuration. */
-    private Scanner _config;
+    /** Directory of cached configurations, or null if they are not
+     *  cached. */
+    private File _cacheDir;
 
-    /** File for encoded/decoded messages. */
-    private PrintStream _output;
+    /** Name of the default cache directory, within the home directory.
+     *  Not the temporary directory, where other users could plant
+     *  entries. */
+    private static final String DEFAULT_CACHE = ".cache/enigma";
+
+    /** Number of threads converting messages, or 0 if messages are
+     *  converted as they are read. */
+    private int _threads;
+
+    /** Messages handed to a worker per thread before the oldest must be
+     *  written out, bounding the input held in memory. */
+    private static final int MAX_SESSIONS_PER_THREAD = 4;
+
+    /** Threads converting messages, with --sessions. */
+    private ExecutorService _workers;
+
+    /** Messages handed to _workers, in input order. */
+    private ArrayDeque<Future<Session>> _sessions;
+
+    /** Settings line of the message being collected, or null. */
+    private String _settings;
+
+    /** Lines of the message being collected, each ending in a newline. */
+    private StringBuilder _text;
+
+    /** Time at which the message being converted was begun, in
+     *  nanoseconds, when metrics are enabled and messages are converted
+     *  as they are read. */
+    private long _messageStart;
 
     /** Number of rotors used in this machine. */
     private int _numRotors;
@@ -317,7 +662,10 @@ public final class Main {
     /**Collection of rotors.*/
     private Collection<Rotor> _allRotors;
 
-    /**Machine's plugboard.*/
-    private String _plugboard;
+    /** Plugboards used in settings lines. */
+    private PlugboardCache _plugboards;
+
+    /** Most plugboards kept in _plugboards. */
+    private static final int MAX_PLUGBOARDS = 64;
 
 }
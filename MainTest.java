@@ -0,0 +1,153 @@
+package enigma;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the Main class.
+ *  @author Devyanshi Agarwal
+ */
+public class MainTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** A settings line for the naval configuration. */
+    private static final String SETTINGS =
+        "* B Beta III IV I AXLE (HQ) (EX) (IP) (TR) (BY)";
+
+    /** Return the text of a configuration file for the naval rotors. */
+    private static String navalConfig() {
+        StringBuilder config = new StringBuilder(UPPER_STRING + "\n5 3\n");
+        for (String[] rotor : NAVAL_ROTORS) {
+            config.append(String.format(" %s %s %s%n", rotor[0], rotor[1],
+                                        NAVALA.get(rotor[0])));
+        }
+        return config.toString();
+    }
+
+    /** Return the output of the simulator, given the naval configuration,
+     *  INPUT, and OPTIONS, followed by "Error: " and the message of the
+     *  error that stopped it, if one did. */
+    private String run(String input, String... options) throws IOException {
+        File dir = Files.createTempDirectory("enigma-main").toFile();
+        File config = new File(dir, "naval.conf");
+        File in = new File(dir, "messages.in");
+        File out = new File(dir, "messages.out");
+        try {
+            Files.write(config.toPath(),
+                        navalConfig().getBytes(StandardCharsets.US_ASCII));
+            Files.write(in.toPath(),
+                        input.getBytes(StandardCharsets.US_ASCII));
+            String[] args = new String[options.length + 3];
+            System.arraycopy(options, 0, args, 0, options.length);
+            args[options.length] = config.getPath();
+            args[options.length + 1] = in.getPath();
+            args[options.length + 2] = out.getPath();
+            String error = "";
+            try (Main main = new Main(args)) {
+                main.process();
+            } catch (EnigmaException excp) {
+                error = "Error: " + excp.getMessage();
+            }
+            return new String(Files.readAllBytes(out.toPath()),
+                              StandardCharsets.US_ASCII) + error;
+        } finally {
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testSessionsMatchSerial() throws IOException {
+        String input = SETTINGS + "\nFROM HIS SHOULDER\nHIAWATHA\n"
+            + "* B Gamma I II V ABCD (AZ)\n\nTOOK THE CAMERA OF ROSEWOOD\n"
+            + SETTINGS + "\n";
+        String serial = run(input);
+        assertTrue(serial,
+                   serial.startsWith("QVPQS OKOIL PUBKJ\nZPISF XDW\n"));
+        assertEquals(serial, run(input, "--sessions=1"));
+        assertEquals(serial, run(input, "--sessions=3"));
+    }
+
+    @Test
+    public void testSessionsMatchSerialOnError() throws IOException {
+        String[] inputs = {
+            SETTINGS + "\nHELLO\nHEL1O\nWORLD\n",
+            SETTINGS + "\nHELLO\n" + SETTINGS + "\nHELLO\nHEL1O",
+            SETTINGS + "\nHELLO\n* B Beta III IV X AXLE\nHELLO\n",
+        };
+        for (String input : inputs) {
+            String serial = run(input);
+            assertTrue(serial, serial.contains("Error: "));
+            assertTrue(serial, serial.startsWith("UPVGJ\n"));
+            assertEquals(serial, run(input, "--sessions=2"));
+        }
+    }
+
+    @Test
+    public void testLineEndings() throws IOException {
+        String input = SETTINGS + "\nFROM HIS SHOULDER\nHIAWATHA\n\n"
+            + "* B Gamma I II V ABCD (AZ)\nTOOK THE CAMERA\n";
+        String serial = run(input);
+        assertFalse(serial, serial.contains("Error: "));
+        String crlf = input.replace("\n", "\r\n");
+        assertEquals(serial, run(crlf));
+        assertEquals(serial, run(input.replace("\n", "\r")));
+        assertEquals(serial, run(input.substring(0, input.length() - 1)));
+        assertEquals(serial, run(crlf.substring(0, crlf.length() - 2)));
+    }
+
+    @Test
+    public void testLongLines() throws IOException {
+        StringBuilder input = new StringBuilder(SETTINGS + "\n");
+        for (int k = 0; k < 30000; k++) {
+            input.append("HIAWATHA ");
+        }
+        while (input.length() % (1 << 16) != (1 << 16) - 1) {
+            input.append('A');
+        }
+        input.append("\r\n").append(SETTINGS).append("\r\n");
+        for (int k = 0; k < 20000; k++) {
+            input.append(k % 7 == 0 ? "\r\n" : "TOOK ");
+        }
+        String blocks = run(input.toString());
+        assertFalse(blocks.substring(0, 100), blocks.contains("Error: "));
+        assertEquals(blocks, run(input.toString(), "--sessions=1"));
+        String first = blocks.substring(0, blocks.indexOf('\n'));
+        assertTrue(first.matches("([A-Z]{5} )*[A-Z]{1,5}"));
+        assertEquals(blocks, run(input.toString()
+                                 .replace("\r\n", "\n")));
+    }
+
+    @Test
+    public void testMmapMatchesStreams() throws IOException {
+        StringBuilder input = new StringBuilder(SETTINGS + "\r\n");
+        for (int k = 0; k < 20000; k++) {
+            input.append(k % 9 == 0 ? "\r\n" : "FROM HIS ");
+        }
+        input.append("\n* B Gamma I II V ABCD (AZ)\nTOOK THE CAMERA");
+        for (String text : new String[] {
+                input.toString(), SETTINGS + "\nHELLO\nHEL1O\n" }) {
+            String streams = run(text);
+            assertEquals(streams, run(text, "--mmap"));
+            assertEquals(run(text, "--continuous"),
+                         run(text, "--mmap", "--continuous"));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package enigma;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/** A Reader over a memory-mapped file whose characters are all single
+ *  bytes.  Each byte is widened from the mapping directly into the
+ *  caller's buffer, with no charset decoding or intermediate copy.
+ *  Files too big for one mapping are mapped a window at a time.
+ *  @author Devyanshi Agarwal
+ */
+class MappedReader extends Reader {
+
+    /** A reader of the whole of the file open on CHANNEL, which it closes
+     *  when it is closed. */
+    MappedReader(FileChannel channel) throws IOException {
+        _channel = channel;
+        _size = channel.size();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (_window == null || !_window.hasRemaining()) {
+            if (_mapped >= _size) {
+                return -1;
+            }
+            long size = Math.min(WINDOW_SIZE, _size - _mapped);
+            _window = _channel.map(FileChannel.MapMode.READ_ONLY, _mapped,
+                                   size);
+            _mapped += size;
+        }
+        MappedByteBuffer window = _window;
+        int pos = window.position();
+        int n = Math.min(len, window.limit() - pos);
+        for (int i = 0; i < n; i++) {
+            cbuf[off + i] = (char) (window.get(pos + i) & 0xff);
+        }
+        window.position(pos + n);
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _window = null;
+        _channel.close();
+    }
+
+    /** Largest part of the file mapped at once. */
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    /** The file I read. */
+    private final FileChannel _channel;
+    /** Size of the file in bytes. */
+    private final long _size;
+    /** Bytes of the file mapped so far. */
+    private long _mapped;
+    /** The current mapping, or null before the first read. */
+    private MappedByteBuffer _window;
+}
@@ -0,0 +1,100 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/** The suite of all JUnit tests for the MappedReader and
+ *  ByteChannelWriter classes, which carry single-byte text for --mmap.
+ *  @author Devyanshi Agarwal
+ */
+public class MappedReaderTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    /* ***** TESTING UTILITIES ***** */
+
+    /** Return SIZE bytes, running through all 256 values. */
+    private static byte[] bytes(int size) {
+        byte[] result = new byte[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = (byte) (i * 7);
+        }
+        return result;
+    }
+
+    /** Return the characters read from FILE by a MappedReader, PIECE at
+     *  a time. */
+    private static String read(File file, int piece) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buf = new char[piece];
+        try (MappedReader in =
+             new MappedReader(FileChannel.open(file.toPath()))) {
+            assertEquals(0, in.read(buf, 0, 0));
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                assertTrue(n > 0);
+                result.append(buf, 0, n);
+            }
+            assertEquals(-1, in.read(buf));
+        }
+        return result.toString();
+    }
+
+    /* ***** TESTS ***** */
+
+    @Test
+    public void testRead() throws IOException {
+        File file = Files.createTempFile("enigma-mapped", ".in").toFile();
+        try {
+            byte[] data = bytes(200000);
+            Files.write(file.toPath(), data);
+            for (int piece : new int[] { 1, 100, 65536, 300000 }) {
+                String text = read(file, piece);
+                assertEquals(data.length, text.length());
+                for (int i = 0; i < data.length; i++) {
+                    assertEquals(data[i] & 0xff, text.charAt(i));
+                }
+            }
+            Files.write(file.toPath(), new byte[0]);
+            assertEquals("", read(file, 10));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        File file = Files.createTempFile("enigma-channel", ".out").toFile();
+        try {
+            byte[] data = bytes(200000);
+            char[] chars = new char[data.length];
+            for (int i = 0; i < data.length; i++) {
+                chars[i] = (char) (data[i] & 0xff);
+            }
+            FileChannel channel =
+                FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                                 StandardOpenOption.TRUNCATE_EXISTING);
+            try (ByteChannelWriter out = new ByteChannelWriter(channel)) {
+                out.write(chars, 0, 10);
+                out.flush();
+                assertEquals(10, Files.size(file.toPath()));
+                for (int i = 10; i < chars.length; i += 9999) {
+                    out.write(chars, i, Math.min(9999, chars.length - i));
+                }
+            }
+            assertFalse(channel.isOpen());
+            assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        } finally {
+            file.delete();
+        }
+    }
+}
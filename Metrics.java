@@ -0,0 +1,406 @@
+package enigma;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static enigma.EnigmaException.*;
+
+/** Counters and latency histograms describing the work done by the
+ *  machines of this process: keystrokes converted, rotor advances by slot
+ *  and double steps made in converting them, settings lines applied,
+ *  configurations read, and the time taken by each message.  Rotor
+ *  movements made without converting, by Machine.skip, seek and step or
+ *  by key searches, are not counted.  Instrumentation is off unless the
+ *  system property enigma.metrics is "true" when this class is loaded;
+ *  callers guard each recording with ENABLED.  That is a static final
+ *  field, not a compile-time constant, so the recordings stay in the
+ *  bytecode, but once ENABLED has been read the JIT compiler folds the
+ *  guard and drops them from compiled code.  Counters are LongAdders,
+ *  so that threads converting at once do not contend for them.  The
+ *  counts can be read as Snapshots, handed to Reporters, or read through
+ *  JMX once register() has been called.
+ *  @author Devyanshi Agarwal
+ */
+final class Metrics {
+
+    /** True iff instrumentation is on. */
+    static final boolean ENABLED = Boolean.getBoolean("enigma.metrics");
+
+    /** Name of the MBean under which register() publishes the counts. */
+    static final String OBJECT_NAME = "enigma:type=Metrics";
+
+    /** Number of buckets in a latency histogram. */
+    static final int BUCKETS = 64;
+
+    /** Receives the counts when report() is called. */
+    interface Reporter {
+        /** Report SNAPSHOT. */
+        void report(Snapshot snapshot);
+    }
+
+    /** The counts at one time. */
+    static final class Snapshot {
+
+        /** Return the number of keystrokes converted. */
+        long keystrokes() {
+            return _keystrokes;
+        }
+
+        /** Return the number of times the rotor in SLOT has advanced in
+         *  converting keystrokes. */
+        long rotorAdvances(int slot) {
+            return slot < _rotorAdvances.length ? _rotorAdvances[slot] : 0;
+        }
+
+        /** Return the number of times each slot's rotor has advanced in
+         *  converting keystrokes, up to the last slot whose rotor has. */
+        long[] rotorAdvances() {
+            return _rotorAdvances.clone();
+        }
+
+        /** Return the number of double steps: advances of a rotor
+         *  because it was itself at a notch. */
+        long doubleSteps() {
+            return _doubleSteps;
+        }
+
+        /** Return the number of settings lines applied. */
+        long settingsChanges() {
+            return _settingsChanges;
+        }
+
+        /** Return the number of configurations read. */
+        long configParses() {
+            return _configParses;
+        }
+
+        /** Return the total time spent reading configurations, in
+         *  nanoseconds. */
+        long configParseNanos() {
+            return _configParseNanos;
+        }
+
+        /** Return the number of messages converted. */
+        long messages() {
+            return _messages;
+        }
+
+        /** Return the total time spent converting messages, in
+         *  nanoseconds. */
+        long messageNanos() {
+            return _messageNanos;
+        }
+
+        /** Return the number of messages that took a time in bucket K
+         *  (see bucket). */
+        long messageLatency(int k) {
+            return _messageLatencies[k];
+        }
+
+        /** Return the number of messages that took a time in each
+         *  bucket. */
+        long[] messageLatencies() {
+            return _messageLatencies.clone();
+        }
+
+        /** Return the least time, in nanoseconds, within which a fraction
+         *  Q of the messages were converted, to within a factor of two,
+         *  or 0 if there were none. */
+        long messageQuantile(double q) {
+            long rank = (long) Math.ceil(q * _messages);
+            long seen = 0;
+            for (int k = 0; k < BUCKETS; k++) {
+                seen += _messageLatencies[k];
+                if (seen >= rank && seen > 0) {
+                    return upperBound(k);
+                }
+            }
+            return 0;
+        }
+
+        /** Counts. */
+        private long _keystrokes, _doubleSteps, _settingsChanges,
+            _configParses, _configParseNanos, _messages, _messageNanos;
+        /** Rotor advances by slot. */
+        private long[] _rotorAdvances;
+        /** Message latencies by bucket. */
+        private long[] _messageLatencies;
+    }
+
+    /** A Reporter that prints the counts, one per line. */
+    static final class PrintReporter implements Reporter {
+
+        /** A Reporter printing on OUT. */
+        PrintReporter(PrintStream out) {
+            _out = out;
+        }
+
+        @Override
+        public void report(Snapshot s) {
+            _out.printf("keystrokes: %d%n", s.keystrokes());
+            long[] advances = s.rotorAdvances();
+            for (int k = 0; k < advances.length; k++) {
+                _out.printf("rotor advances, slot %d: %d%n", k, advances[k]);
+            }
+            _out.printf("double steps: %d%n", s.doubleSteps());
+            _out.printf("settings changes: %d%n", s.settingsChanges());
+            _out.printf("config reads: %d (%.3f ms)%n", s.configParses(),
+                        s.configParseNanos() / 1e6);
+            _out.printf("messages: %d (%.3f ms)%n", s.messages(),
+                        s.messageNanos() / 1e6);
+            if (s.messages() > 0) {
+                _out.printf("message latency: p50 < %d ns, p99 < %d ns, "
+                            + "max < %d ns%n", s.messageQuantile(0.5),
+                            s.messageQuantile(0.99), s.messageQuantile(1));
+            }
+            _out.flush();
+        }
+
+        /** Where I print. */
+        private final PrintStream _out;
+    }
+
+    /** Not instantiable. */
+    private Metrics() {
+    }
+
+    /** Record one keystroke converted. */
+    static void keystroke() {
+        KEYSTROKES.increment();
+    }
+
+    /** Record an advance of the rotor in SLOT. */
+    static void rotorAdvance(int slot) {
+        LongAdder[] advances = _rotorAdvances;
+        if (slot >= advances.length) {
+            advances = slots(slot + 1);
+        }
+        advances[slot].increment();
+    }
+
+    /** Record a double step. */
+    static void doubleStep() {
+        DOUBLE_STEPS.increment();
+    }
+
+    /** Record a settings line applied to a machine. */
+    static void settingsChange() {
+        SETTINGS_CHANGES.increment();
+    }
+
+    /** Record a configuration read in NANOS nanoseconds. */
+    static void configParse(long nanos) {
+        CONFIG_PARSES.increment();
+        CONFIG_PARSE_NANOS.add(nanos);
+    }
+
+    /** Record a message converted in NANOS nanoseconds. */
+    static void message(long nanos) {
+        MESSAGE_NANOS.add(nanos);
+        MESSAGE_LATENCIES[bucket(nanos)].increment();
+    }
+
+    /** Return the bucket of a latency histogram holding times of NANOS
+     *  nanoseconds: bucket 0 holds 0, and bucket K > 0 holds times from
+     *  2**(K-1) up to but not including 2**K, except that the last bucket
+     *  holds all longer times too. */
+    static int bucket(long nanos) {
+        int k = 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0));
+        return Math.min(k, BUCKETS - 1);
+    }
+
+    /** Return the least time, in nanoseconds, longer than all those in
+     *  bucket K. */
+    static long upperBound(int k) {
+        return k >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << k;
+    }
+
+    /** Return the counts as they are now.  Counts recorded while this
+     *  runs may or may not be included. */
+    static Snapshot snapshot() {
+        Snapshot s = new Snapshot();
+        s._keystrokes = KEYSTROKES.sum();
+        s._doubleSteps = DOUBLE_STEPS.sum();
+        s._settingsChanges = SETTINGS_CHANGES.sum();
+        s._configParses = CONFIG_PARSES.sum();
+        s._configParseNanos = CONFIG_PARSE_NANOS.sum();
+        s._messageNanos = MESSAGE_NANOS.sum();
+        s._messageLatencies = new long[BUCKETS];
+        for (int k = 0; k < BUCKETS; k++) {
+            s._messageLatencies[k] = MESSAGE_LATENCIES[k].sum();
+            s._messages += s._messageLatencies[k];
+        }
+        LongAdder[] advances = _rotorAdvances;
+        int slots = advances.length;
+        while (slots > 0 && advances[slots - 1].sum() == 0) {
+            slots -= 1;
+        }
+        s._rotorAdvances = new long[slots];
+        for (int k = 0; k < slots; k++) {
+            s._rotorAdvances[k] = advances[k].sum();
+        }
+        return s;
+    }
+
+    /** Set all counts to 0.  Counts recorded while this runs may or may
+     *  not be kept. */
+    static void reset() {
+        for (LongAdder counter : new LongAdder[] {
+                KEYSTROKES, DOUBLE_STEPS, SETTINGS_CHANGES, CONFIG_PARSES,
+                CONFIG_PARSE_NANOS, MESSAGE_NANOS }) {
+            counter.reset();
+        }
+        for (LongAdder counter : MESSAGE_LATENCIES) {
+            counter.reset();
+        }
+        for (LongAdder counter : _rotorAdvances) {
+            counter.reset();
+        }
+    }
+
+    /** Have REPORTER receive the counts whenever report() is called. */
+    static void addReporter(Reporter reporter) {
+        REPORTERS.add(reporter);
+    }
+
+    /** Stop REPORTER receiving the counts. */
+    static void removeReporter(Reporter reporter) {
+        REPORTERS.remove(reporter);
+    }
+
+    /** Hand a snapshot of the counts to each Reporter added. */
+    static void report() {
+        if (REPORTERS.isEmpty()) {
+            return;
+        }
+        Snapshot s = snapshot();
+        for (Reporter reporter : REPORTERS) {
+            reporter.report(s);
+        }
+    }
+
+    /** Publish the counts on the platform MBean server as OBJECT_NAME,
+     *  if they are not already. */
+    static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException excp) {
+            return;
+        } catch (JMException excp) {
+            throw error("could not register metrics: %s", excp.getMessage());
+        }
+    }
+
+    /** The counts, as seen through JMX. */
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public long getKeystrokes() {
+            return KEYSTROKES.sum();
+        }
+
+        @Override
+        public long[] getRotorAdvances() {
+            return snapshot().rotorAdvances();
+        }
+
+        @Override
+        public long getDoubleSteps() {
+            return DOUBLE_STEPS.sum();
+        }
+
+        @Override
+        public long getSettingsChanges() {
+            return SETTINGS_CHANGES.sum();
+        }
+
+        @Override
+        public long getConfigParses() {
+            return CONFIG_PARSES.sum();
+        }
+
+        @Override
+        public long getConfigParseNanos() {
+            return CONFIG_PARSE_NANOS.sum();
+        }
+
+        @Override
+        public long getMessages() {
+            return snapshot().messages();
+        }
+
+        @Override
+        public long getMessageNanos() {
+            return MESSAGE_NANOS.sum();
+        }
+
+        @Override
+        public long[] getMessageLatencyBuckets() {
+            return snapshot().messageLatencies();
+        }
+
+        @Override
+        public long getMessageLatencyP50() {
+            return snapshot().messageQuantile(0.5);
+        }
+
+        @Override
+        public long getMessageLatencyP99() {
+            return snapshot().messageQuantile(0.99);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+
+    /** Return the rotor advance counters, first making sure there are at
+     *  least SLOTS of them. */
+    private static synchronized LongAdder[] slots(int slots) {
+        LongAdder[] advances = _rotorAdvances;
+        if (slots > advances.length) {
+            advances = Arrays.copyOf(advances, slots);
+            for (int k = _rotorAdvances.length; k < slots; k++) {
+                advances[k] = new LongAdder();
+            }
+            _rotorAdvances = advances;
+        }
+        return advances;
+    }
+
+    /** Counters. */
+    private static final LongAdder
+        KEYSTROKES = new LongAdder(),
+        DOUBLE_STEPS = new LongAdder(),
+        SETTINGS_CHANGES = new LongAdder(),
+        CONFIG_PARSES = new LongAdder(),
+        CONFIG_PARSE_NANOS = new LongAdder(),
+        MESSAGE_NANOS = new LongAdder();
+
+    /** Message latency counters, by bucket. */
+    private static final LongAdder[] MESSAGE_LATENCIES =
+        new LongAdder[BUCKETS];
+
+    static {
+        for (int k = 0; k < BUCKETS; k++) {
+            MESSAGE_LATENCIES[k] = new LongAdder();
+        }
+    }
+
+    /** Rotor advance counters, by slot.  Replaced by a longer copy when a
+     *  machine with more slots is seen. */
+    private static volatile LongAdder[] _rotorAdvances = new LongAdder[0];
+
+    /** Reporters added. */
+    private static final CopyOnWriteArrayList<Reporter> REPORTERS =
+        new CopyOnWriteArrayList<>();
+}
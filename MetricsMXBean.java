@@ -0,0 +1,48 @@
+package enigma;
+
+/** The counts kept by Metrics, as published through JMX under
+ *  Metrics.OBJECT_NAME.  Times are in nanoseconds.
+ *  @author Devyanshi Agarwal
+ */
+public interface MetricsMXBean {
+
+    /** Return the number of keystrokes converted. */
+    long getKeystrokes();
+
+    /** Return the number of advances of the rotor in each slot. */
+    long[] getRotorAdvances();
+
+    /** Return the number of double steps. */
+    long getDoubleSteps();
+
+    /** Return the number of settings lines applied. */
+    long getSettingsChanges();
+
+    /** Return the number of configurations read. */
+    long getConfigParses();
+
+    /** Return the total time spent reading configurations. */
+    long getConfigParseNanos();
+
+    /** Return the number of messages converted. */
+    long getMessages();
+
+    /** Return the total time spent converting messages. */
+    long getMessageNanos();
+
+    /** Return the number of messages whose times fell in each bucket of
+     *  the latency histogram: bucket 0 holds 0, and bucket K > 0 times
+     *  from 2**(K-1) up to 2**K. */
+    long[] getMessageLatencyBuckets();
+
+    /** Return the time within which half the messages were converted, to
+     *  within a factor of two. */
+    long getMessageLatencyP50();
+
+    /** Return the time within which 99% of the messages were converted,
+     *  to within a factor of two. */
+    long getMessageLatencyP99();
+
+    /** Set all counts to 0. */
+    void reset();
+}
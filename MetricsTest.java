@@ -0,0 +1,121 @@
+package enigma;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the Metrics class.
+ *  @author Devyanshi Agarwal
+ */
+public class MetricsTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, Metrics.bucket(0));
+        assertEquals(1, Metrics.bucket(1));
+        assertEquals(2, Metrics.bucket(2));
+        assertEquals(2, Metrics.bucket(3));
+        assertEquals(11, Metrics.bucket(1024));
+        assertEquals(Metrics.BUCKETS - 1, Metrics.bucket(Long.MAX_VALUE));
+        for (long t = 1; t < 1 << 20; t = 3 * t + 1) {
+            int k = Metrics.bucket(t);
+            assertTrue(t < Metrics.upperBound(k));
+            assertTrue(t >= Metrics.upperBound(k - 1));
+        }
+    }
+
+    @Test
+    public void testOnlyConversionCounted() {
+        if (!Metrics.ENABLED) {
+            return;
+        }
+        Machine m = new Machine(UPPER, 5, 3, navalRotors());
+        m.insertRotors(new String[] { "B", "Beta", "III", "IV", "I" });
+        m.setRotors("AXLE", "");
+        m.setPlugboard(new Permutation("", UPPER));
+        Metrics.reset();
+        m.convert("HELLOWORLD");
+        m.skip(1000);
+        m.step();
+        m.seek(5000);
+        Metrics.Snapshot s = Metrics.snapshot();
+        assertEquals(10, s.keystrokes());
+        assertEquals(10, s.rotorAdvances(4));
+        assertEquals(0, s.rotorAdvances(2));
+    }
+
+    @Test
+    public void testCounts() {
+        Metrics.reset();
+        for (int i = 0; i < 10; i++) {
+            Metrics.keystroke();
+            Metrics.rotorAdvance(4);
+        }
+        Metrics.rotorAdvance(3);
+        Metrics.doubleStep();
+        Metrics.settingsChange();
+        Metrics.configParse(500);
+        for (int i = 0; i < 99; i++) {
+            Metrics.message(1000);
+        }
+        Metrics.message(1_000_000);
+        Metrics.Snapshot s = Metrics.snapshot();
+        assertEquals(10, s.keystrokes());
+        assertEquals("[0, 0, 0, 1, 10]",
+                     Arrays.toString(s.rotorAdvances()));
+        assertEquals(1, s.doubleSteps());
+        assertEquals(1, s.settingsChanges());
+        assertEquals(1, s.configParses());
+        assertEquals(500, s.configParseNanos());
+        assertEquals(100, s.messages());
+        assertEquals(99 * 1000 + 1_000_000, s.messageNanos());
+        assertEquals(99, s.messageLatency(Metrics.bucket(1000)));
+        assertEquals(1024, s.messageQuantile(0.5));
+        assertEquals(1024, s.messageQuantile(0.99));
+        assertEquals(1 << 20, s.messageQuantile(1));
+
+        Metrics.reset();
+        s = Metrics.snapshot();
+        assertEquals(0, s.keystrokes());
+        assertEquals(0, s.rotorAdvances().length);
+        assertEquals(0, s.messages());
+        assertEquals(0, s.messageQuantile(0.5));
+    }
+
+    @Test
+    public void testReporters() throws Exception {
+        Metrics.reset();
+        ArrayList<Metrics.Snapshot> reports = new ArrayList<>();
+        Metrics.Reporter reporter = reports::add;
+        Metrics.addReporter(reporter);
+        Metrics.keystroke();
+        Metrics.report();
+        Metrics.removeReporter(reporter);
+        Metrics.report();
+        assertEquals(1, reports.size());
+        assertEquals(1, reports.get(0).keystrokes());
+
+        Metrics.register();
+        Metrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertEquals(1L, server.getAttribute(name, "Keystrokes"));
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "Keystrokes"));
+    }
+
+}
@@ -15,6 +15,29 @@ class MovingRotor extends Rotor {
         _permutation = perm;
         _notches = notches;
         _notchesArr = _notches.toCharArray();
+        _notched = new boolean[size()];
+        for (char n : _notchesArr) {
+            if (!alphabet().contains(n)) {
+                throw EnigmaException.error("Notch '%c' not in alphabet", n);
+            }
+            _notched[alphabet().toInt(n)] = true;
+        }
+    }
+
+    /** A rotor named NAME with permutation PERM and notches NOTCHES, which
+     *  shares NOTCHED, its table of notches by setting. */
+    private MovingRotor(String name, Permutation perm, String notches,
+                        boolean[] notched) {
+        super(name, perm);
+        _permutation = perm;
+        _notches = notches;
+        _notchesArr = _notches.toCharArray();
+        _notched = notched;
+    }
+
+    @Override
+    Rotor unset() {
+        return new MovingRotor(name(), _permutation, _notches, _notched);
     }
 
     @Override
@@ -24,13 +47,12 @@ class MovingRotor extends Rotor {
 
     @Override
     boolean atNotch() {
-        char curr = alphabet().toChar(setting());
-        for (char n : _notchesArr) {
-            if (n == curr) {
-                return true;
-            }
-        }
-        return false;
+        return _notched[setting()];
+    }
+
+    @Override
+    boolean notchAt(int posn) {
+        return _notched[posn];
     }
 
     /** Advance me one position, if possible. By default, does nothing. */
@@ -40,11 +62,11 @@ class MovingRotor extends Rotor {
     }
 
     /** Permutation of the rotor.*/
-    private Permutation _permutation;
+    private final Permutation _permutation;
     /** Notches of the rotor.*/
-    private String _notches;
-    /** setting of the rotor.*/
-    private int _setting;
+    private final String _notches;
     /** notches of the rotor.*/
-    private char[] _notchesArr;
+    private final char[] _notchesArr;
+    /** Whether each setting of the rotor is a notch. */
+    private final boolean[] _notched;
 }
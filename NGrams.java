@@ -0,0 +1,137 @@
+package enigma;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static enigma.EnigmaException.*;
+
+/** A table of the log-likelihoods of the N-grams (sequences of N
+ *  characters) of a language, over one alphabet, estimated from a corpus
+ *  of text.  The table is a flat array indexed by the N-gram's characters'
+ *  alphabet indices, read as a number in base alphabet size, so that a
+ *  text is scored with one lookup per character and without allocating.
+ *  @author Devyanshi Agarwal
+ */
+class NGrams {
+
+    /** The table of N-grams over ALPHABET estimated from CORPUS.
+     *  Characters of CORPUS that are not in ALPHABET, and whose upper
+     *  case forms are not either, are skipped. */
+    NGrams(Alphabet alphabet, int n, CharSequence corpus) {
+        if (n <= 0) {
+            throw error("n-gram length must be positive");
+        }
+        int size = alphabet.size();
+        long entries = 1;
+        for (int k = 0; k < n; k++) {
+            entries *= size;
+            if (entries > MAX_ENTRIES) {
+                throw error("%d-gram table over %d characters is too large",
+                            n, size);
+            }
+        }
+        _alphabet = alphabet;
+        _n = n;
+        _size = size;
+        _high = (int) (entries / size);
+        int[] counts = new int[(int) entries];
+        long total = 0;
+        int code = 0, run = 0;
+        for (int i = 0; i < corpus.length(); i++) {
+            int c = index(corpus.charAt(i));
+            if (c < 0) {
+                continue;
+            }
+            code = (code % _high) * size + c;
+            run += 1;
+            if (run >= n) {
+                counts[code] += 1;
+                total += 1;
+            }
+        }
+        if (total == 0) {
+            throw error("corpus has no %d-grams", n);
+        }
+        _logs = new float[counts.length];
+        double floor = Math.log(FLOOR / total);
+        for (int k = 0; k < counts.length; k++) {
+            _logs[k] = (float) (counts[k] == 0 ? floor
+                                : Math.log((double) counts[k] / total));
+        }
+    }
+
+    /** Return the table of N-grams over ALPHABET estimated from the
+     *  contents of the file named NAME. */
+    static NGrams read(Alphabet alphabet, int n, String name) {
+        String corpus;
+        try {
+            corpus = new String(Files.readAllBytes(Paths.get(name)),
+                                Charset.defaultCharset());
+        } catch (IOException excp) {
+            throw error("could not read corpus %s", name);
+        }
+        return new NGrams(alphabet, n, corpus);
+    }
+
+    /** Return the length of my N-grams. */
+    int n() {
+        return _n;
+    }
+
+    /** Return the log-likelihood of the N-gram whose characters have the
+     *  alphabet indices in NGRAM. */
+    double log(int... ngram) {
+        int code = 0;
+        for (int c : ngram) {
+            code = code * _size + c;
+        }
+        return _logs[code];
+    }
+
+    /** Return the sum of the log-likelihoods of the N-grams of the first
+     *  LENGTH characters of TEXT, given as alphabet indices. */
+    double score(int[] text, int length) {
+        float[] logs = _logs;
+        int high = _high, size = _size, n = _n;
+        int warm = Math.min(length, n - 1);
+        int code = 0;
+        for (int i = 0; i < warm; i++) {
+            code = code * size + text[i];
+        }
+        double sum = 0;
+        for (int i = warm; i < length; i++) {
+            code = code * size + text[i];
+            sum += logs[code];
+            code -= text[i - n + 1] * high;
+        }
+        return sum;
+    }
+
+    /** Return the alphabet index of CH, or of its upper-case form, or -1
+     *  if neither is in my alphabet. */
+    private int index(char ch) {
+        if (_alphabet.contains(ch)) {
+            return _alphabet.toInt(ch);
+        }
+        char upper = Character.toUpperCase(ch);
+        return _alphabet.contains(upper) ? _alphabet.toInt(upper) : -1;
+    }
+
+    /** Largest number of entries in a table. */
+    private static final long MAX_ENTRIES = 1 << 24;
+    /** Count given to N-grams that do not occur in the corpus. */
+    private static final double FLOOR = 0.01;
+
+    /** Alphabet of my N-grams. */
+    private final Alphabet _alphabet;
+    /** Length of my N-grams. */
+    private final int _n;
+    /** Size of my alphabet. */
+    private final int _size;
+    /** Number of (N-1)-grams: the size of my alphabet to the N-1'th. */
+    private final int _high;
+    /** Log-likelihood of each N-gram, by code. */
+    private final float[] _logs;
+}
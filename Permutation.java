@@ -1,7 +1,5 @@
 package enigma;
 
-import java.util.HashMap;
-
 /** Represents a permutation of a range of integers starting at 0 corresponding
  *  to the characters of an alphabet.
  *  @author Devyanshi Agarwal
@@ -12,55 +10,90 @@ class Permutation {
      *  form "(cccc) (cc) ..." where the c's are characters in ALPHABET, which
      *  is interpreted as a permutation in cycle notation.  Characters in the
      *  alphabet that are not included in any cycle map to themselves.
-     *  Whitespace is ignored. */
+     *  Whitespace is ignored; any other character outside a cycle, or a
+     *  cycle left open, is an error. */
     Permutation(String cycles, Alphabet alphabet) {
         _alphabet = alphabet;
-        _cycles = cycles;
-        _cycles = _cycles.replace(" ", "");
-        _cycles = _cycles.replace(")", " ");
-        _cycles = _cycles.replace("(", "");
-        _permutations = new HashMap<>();
-        _inverts = new HashMap<>();
-        addCycle(_cycles);
+        _forward = new int[alphabet.size()];
+        _inverse = new int[alphabet.size()];
+        for (int i = 0; i < _forward.length; i++) {
+            _forward[i] = i;
+            _inverse[i] = i;
+        }
+        boolean[] seen = new boolean[alphabet.size()];
+        StringBuilder cycle = new StringBuilder();
+        boolean open = false;
+        for (int i = 0; i < cycles.length(); i++) {
+            char curr = cycles.charAt(i);
+            if (curr == '(') {
+                if (open) {
+                    throw EnigmaException.error("'(' inside a cycle");
+                }
+                open = true;
+                cycle.setLength(0);
+            } else if (curr == ')') {
+                if (!open) {
+                    throw EnigmaException.error("')' outside a cycle");
+                }
+                addCycle(cycle.toString(), seen);
+                open = false;
+            } else if (Character.isWhitespace(curr)) {
+                continue;
+            } else if (open) {
+                cycle.append(curr);
+            } else {
+                throw EnigmaException.error("'%c' outside a cycle", curr);
+            }
+        }
+        if (open) {
+            throw EnigmaException.error("unterminated cycle in %s", cycles);
+        }
     }
 
-    /** Add the cycle c0->c1->...->cm->c0 to the permutation, where CYCLE is
-     *  c0c1...cm. */
-    private void addCycle(String cycle) {
-        char[] charArray = _cycles.toCharArray();
-        if (charArray.length == 0) {
-            for (int i = 0; i < _alphabet.size(); i++) {
-                _permutations.put(_alphabet.toChar(i), _alphabet.toChar(i));
+    /** Set this Permutation to the one that maps each index I of ALPHABET
+     *  to FORWARD[I], which must hold each index exactly once.  FORWARD is
+     *  not copied, and must not be changed afterwards. */
+    Permutation(int[] forward, Alphabet alphabet) {
+        if (forward.length != alphabet.size()) {
+            throw EnigmaException.error("permutation has wrong size");
+        }
+        _alphabet = alphabet;
+        _forward = forward;
+        _inverse = new int[forward.length];
+        boolean[] seen = new boolean[forward.length];
+        for (int i = 0; i < forward.length; i++) {
+            int to = forward[i];
+            if (to < 0 || to >= forward.length || seen[to]) {
+                throw EnigmaException.error("not a permutation");
             }
-        } else {
-            char first = charArray[0];
-            for (int i = 0; i < charArray.length; i++) {
-                char curr = charArray[i];
-                if (i == charArray.length - 1 && curr == ' ') {
-                    break;
-                }
-                if (curr == ' ') {
-                    first = charArray[i + 1];
-                } else if (charArray[i + 1] == ' ') {
-                    _permutations.put(curr, first);
-                    _inverts.put(first, curr);
-                    first = curr;
-                } else {
-                    _permutations.put(curr, charArray[i + 1]);
-                    _inverts.put(charArray[i + 1], curr);
-                }
+            seen[to] = true;
+            _inverse[to] = i;
+        }
+    }
 
+    /** Add the cycle c0->c1->...->cm->c0 to the permutation, where CYCLE is
+     *  c0c1...cm.  SEEN marks the indices already placed in some cycle. */
+    private void addCycle(String cycle, boolean[] seen) {
+        int len = cycle.length();
+        for (int i = 0; i < len; i++) {
+            char curr = cycle.charAt(i);
+            checkCycle(curr);
+            int from = _alphabet.toInt(curr);
+            if (seen[from]) {
+                throw EnigmaException.error(
+                        "'%c' appears more than once in a permutation", curr);
             }
+            seen[from] = true;
+            int to = _alphabet.toInt(cycle.charAt((i + 1) % len));
+            _forward[from] = to;
+            _inverse[to] = from;
         }
     }
 
     /** checks the cycle taking CHARACTER C. */
     private void checkCycle(char c) {
-        char input = c;
-        if (input != ' ') {
-            if (!_alphabet.contains(input)) {
-                throw EnigmaException.error("Invalid input");
-            }
+        if (!_alphabet.contains(c)) {
+            throw EnigmaException.error("Invalid input");
         }
     }
 
@@ -75,48 +108,32 @@ class Permutation {
 
     /** Returns the size of the alphabet I permute. */
     int size() {
-        return _alphabet.size();
+        return _forward.length;
     }
 
     /** Return the RESULT of applying this permutation
      * to P modulo the alphabet size. */
     int permute(int p) {
-        int index = wrap(p);
-        char input = _alphabet.toChar(index);
-        char output = permute(input);
-        int val = _alphabet.toInt(output);
-        return val;
+        return _forward[wrap(p)];
     }
 
     /** Return the result of applying the inverse of this permutation
      *  to  C modulo the alphabet size. */
     int invert(int c) {
-        int index = wrap(c);
-        char input = _alphabet.toChar(index);
-        char output = invert(input);
-        int val = _alphabet.toInt(output);
-        return val;
+        return _inverse[wrap(c)];
     }
 
     /** Return the result of applying this permutation to the index of P
      *  in ALPHABET, and converting the result to a character of ALPHABET. */
     char permute(char p) {
         checkCycle(p);
-        Character val = p;
-        if (_permutations.containsKey(p)) {
-            val = _permutations.get(p);
-        }
-        return val;
+        return _alphabet.toChar(_forward[_alphabet.toInt(p)]);
     }
 
     /** Return the result of applying the inverse of this permutation to C. */
     char invert(char c) {
         checkCycle(c);
-        Character val = c;
-        if (_inverts.containsKey(c)) {
-            val = _inverts.get(c);
-        }
-        return val;
+        return _alphabet.toChar(_inverse[_alphabet.toInt(c)]);
     }
 
     /** Return the alphabet used to initialize this Permutation. */
@@ -127,23 +144,59 @@ class Permutation {
     /** Return true iff this permutation is a derangement (i.e., a
      *  permutation for which no value maps to itself). */
     boolean derangement() {
-        for (int i = 0; i < _alphabet.size(); i++) {
-            if (!_permutations.containsKey(_alphabet.toChar(i))) {
-                return false;
-            }
-            if (_permutations.get(_alphabet.toChar(i)) == _alphabet.toChar(i)) {
+        for (int i = 0; i < _forward.length; i++) {
+            if (_forward[i] == i) {
                 return false;
             }
         }
         return true;
     }
 
+    /** Return a table of size() * size() entries whose entry
+     *  OFFSET * size() + P is the result of entering P on contacts
+     *  shifted by OFFSET, applying this permutation if FORWARD (its
+     *  inverse otherwise), and shifting back.  Each table is built on
+     *  first use and shared afterwards.  Requires that size() be at most
+     *  MAX_SHIFTED_SIZE. */
+    synchronized int[] shiftedTable(boolean forward) {
+        if (size() > MAX_SHIFTED_SIZE) {
+            throw EnigmaException.error("alphabet of %d characters is too "
+                                        + "large for shifted tables",
+                                        size());
+        }
+        if (forward && _shiftedForward == null) {
+            _shiftedForward = buildShifted(_forward);
+        } else if (!forward && _shiftedInverse == null) {
+            _shiftedInverse = buildShifted(_inverse);
+        }
+        return forward ? _shiftedForward : _shiftedInverse;
+    }
+
+    /** Return the shifted table (see shiftedTable) of the mapping MAP. */
+    private int[] buildShifted(int[] map) {
+        int n = size();
+        int[] table = new int[n * n];
+        for (int offset = 0; offset < n; offset++) {
+            for (int p = 0; p < n; p++) {
+                table[offset * n + p] = wrap(map[wrap(p + offset)] - offset);
+            }
+        }
+        return table;
+    }
+
+    /** Largest alphabet size for which shifted tables are built.  Each
+     *  table has the square of the alphabet size entries, so this bounds
+     *  a table at 4 MiB. */
+    static final int MAX_SHIFTED_SIZE = 1 << 10;
+
     /** Alphabet of this permutation. */
     private Alphabet _alphabet;
-    /** Cycles of this permutation. */
-    private String _cycles;
-    /** Hashmap of permutations. */
-    private HashMap<Character, Character> _permutations;
-    /** Hashmap of inverts. */
-    private HashMap<Character, Character> _inverts;
+    /** Index that each index maps to. */
+    private final int[] _forward;
+    /** Index that maps to each index. */
+    private final int[] _inverse;
+    /** Forward shifted table, or null if not yet built. */
+    private int[] _shiftedForward;
+    /** Inverse shifted table, or null if not yet built. */
+    private int[] _shiftedInverse;
 }
@@ -132,4 +132,19 @@ public class PermutationTest {
         p = new Permutation("(ABCD)", alphabet3);
         assertTrue(p.derangement());
     }
+
+    @Test(expected = EnigmaException.class)
+    public void testTextOutsideCycle() {
+        new Permutation("AA (AM)", UPPER);
+    }
+
+    @Test(expected = EnigmaException.class)
+    public void testUnterminatedCycle() {
+        new Permutation("(AM) (BC", UPPER);
+    }
+
+    @Test(expected = EnigmaException.class)
+    public void testNestedCycle() {
+        new Permutation("(AM (BC))", UPPER);
+    }
 }
@@ -0,0 +1,86 @@
+package enigma;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** A bounded cache of plugboard permutations over one alphabet, keyed by
+ *  a canonical form of their swaps, so that the same swaps written in any
+ *  order or orientation share one Permutation.  When full, the least
+ *  recently used plugboard is dropped.  A PlugboardCache may be used from
+ *  several threads.
+ *  @author Devyanshi Agarwal
+ */
+class PlugboardCache {
+
+    /** A cache holding at most CAPACITY plugboards over ALPHABET. */
+    PlugboardCache(Alphabet alphabet, int capacity) {
+        _alphabet = alphabet;
+        _capacity = capacity;
+        _plugboards = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, Permutation> eldest) {
+                return size() > _capacity;
+            }
+        };
+    }
+
+    /** Return the plugboard whose cycles are CYCLES, a sequence of
+     *  "(xy)" pairs with no other characters. */
+    Permutation get(CharSequence cycles) {
+        if (cycles.length() % 4 != 0) {
+            throw EnigmaException.error("Incorrect plugboard input");
+        }
+        String key = canonical(cycles);
+        synchronized (this) {
+            Permutation plugboard = _plugboards.get(key);
+            if (plugboard != null) {
+                _hits += 1;
+                return plugboard;
+            }
+            _misses += 1;
+        }
+        Permutation plugboard = new Permutation(key, _alphabet);
+        synchronized (this) {
+            Permutation other = _plugboards.putIfAbsent(key, plugboard);
+            return other == null ? plugboard : other;
+        }
+    }
+
+    /** Return the number of plugboards found in the cache. */
+    synchronized long hits() {
+        return _hits;
+    }
+
+    /** Return the number of plugboards that had to be made. */
+    synchronized long misses() {
+        return _misses;
+    }
+
+    /** Return the number of plugboards now cached. */
+    synchronized int size() {
+        return _plugboards.size();
+    }
+
+    /** Return the canonical form of CYCLES: its pairs, each with its
+     *  lesser character first, in sorted order. */
+    static String canonical(CharSequence cycles) {
+        String[] pairs = new String[cycles.length() / 4];
+        for (int i = 0; i < pairs.length; i++) {
+            char a = cycles.charAt(4 * i + 1), b = cycles.charAt(4 * i + 2);
+            pairs[i] = a < b ? "(" + a + b + ")" : "(" + b + a + ")";
+        }
+        Arrays.sort(pairs);
+        return String.join("", pairs);
+    }
+
+    /** Alphabet of my plugboards. */
+    private final Alphabet _alphabet;
+    /** Most plugboards I hold. */
+    private final int _capacity;
+    /** My plugboards, by canonical cycles, least recently used first. */
+    private final LinkedHashMap<String, Permutation> _plugboards;
+    /** Numbers of lookups that found and did not find a plugboard. */
+    private long _hits, _misses;
+}
@@ -0,0 +1,51 @@
+package enigma;
+
+import org.junit.Test;
+import org.junit.Rule;
+import org.junit.rules.Timeout;
+import static org.junit.Assert.*;
+
+import static enigma.TestUtils.*;
+
+/** The suite of all JUnit tests for the PlugboardCache class.
+ *  @author Devyanshi Agarwal
+ */
+public class PlugboardCacheTest {
+
+    /** Testing time limit. */
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(5);
+
+    @Test
+    public void testSharing() {
+        PlugboardCache cache = new PlugboardCache(UPPER, 4);
+        Permutation p = cache.get("(AB)(CD)");
+        assertSame(p, cache.get("(DC)(BA)"));
+        assertSame(p, cache.get("(CD)(AB)"));
+        assertEquals(1, p.permute(0));
+        assertEquals(2, p.permute(3));
+        assertEquals(4, p.permute(4));
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+        assertSame(cache.get(""), cache.get(""));
+    }
+
+    @Test
+    public void testEviction() {
+        PlugboardCache cache = new PlugboardCache(UPPER, 2);
+        Permutation ab = cache.get("(AB)");
+        Permutation cd = cache.get("(CD)");
+        assertSame(ab, cache.get("(AB)"));
+        cache.get("(EF)");
+        assertEquals(2, cache.size());
+        assertSame(ab, cache.get("(AB)"));
+        assertNotSame(cd, cache.get("(CD)"));
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
+    @Test(expected = EnigmaException.class)
+    public void testBadPlugboard() {
+        new PlugboardCache(UPPER, 2).get("(AB)(BC)");
+    }
+}
@@ -14,17 +14,20 @@ class Reflector extends FixedRotor {
         _permutation = perm;
     }
 
+    @Override
+    Rotor unset() {
+        return new Reflector(name(), _permutation);
+    }
+
     @Override
     boolean reflecting() {
         return true;
     }
 
+    /** My permutation must be a derangement; Machine.insertRotors
+     *  checks this once when I am inserted. */
     @Override
     int convertForward(int p) {
-        if (!_permutation.derangement()) {
-            throw EnigmaException.error(
-                    "Reflectors must be derangement");
-        }
         return _permutation.permute(p);
     }
 
@@ -34,6 +37,12 @@ class Reflector extends FixedRotor {
                 "Reflectors cannot convert backward");
     }
 
+    /** Reflectors ignore their settings, so always convert at offset 0. */
+    @Override
+    int offset() {
+        return 0;
+    }
+
     @Override
     void set(int posn) {
         if (posn != 0) {
@@ -42,6 +51,6 @@ class Reflector extends FixedRotor {
     }
 
     /** Returns permutations. */
-    private Permutation _permutation;
+    private final Permutation _permutation;
 
 }
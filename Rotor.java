@@ -2,7 +2,9 @@ package enigma;
 
 import static enigma.EnigmaException.*;
 
-/** Superclass that represents a rotor in the enigma machine.
+/** Superclass that represents a rotor in the enigma machine.  A rotor's
+ *  name, permutation and notches never change and may be shared between
+ *  rotors; only its setting and ring setting are its own.
  *  @author Devyanshi Agarwal
  */
 class Rotor {
@@ -64,6 +66,16 @@ class Rotor {
         _settingring = _permutation.alphabet().toInt(cposn);
     }
 
+    /** Return my ring setting. */
+    int ring() {
+        return _settingring;
+    }
+
+    /** Set my ring setting to POSN. */
+    void setRing(int posn) {
+        _settingring = posn;
+    }
+
     /** Return the conversion of P (an integer in the range 0..size()-1)
      *  according to my permutation. */
     int convertForward(int p) {
@@ -84,12 +96,55 @@ class Rotor {
         return contactExited;
     }
 
+    /** Return the distance my contacts are shifted from my permutation,
+     *  (my setting less my ring setting, in the range 0..size()-1). */
+    int offset() {
+        int offset = _setting - _settingring;
+        return offset < 0 ? offset + size() : offset;
+    }
+
+    /** Return a table of size() * size() entries whose entry
+     *  OFFSET * size() + P is convertForward(P) when offset() is OFFSET.
+     *  The table belongs to my permutation, so every copy of me shares
+     *  it. */
+    int[] forwardTable() {
+        return _permutation.shiftedTable(true);
+    }
+
+    /** Return a table of size() * size() entries whose entry
+     *  OFFSET * size() + E is convertBackward(E) when offset() is OFFSET.
+     *  The table belongs to my permutation, so every copy of me shares
+     *  it. */
+    int[] backwardTable() {
+        return _permutation.shiftedTable(false);
+    }
+
+    /** Return a rotor like me, sharing my permutation, in my current
+     *  setting and ring setting. */
+    Rotor copy() {
+        Rotor copy = unset();
+        copy._setting = _setting;
+        copy._settingring = _settingring;
+        return copy;
+    }
+
+    /** Return a new rotor of my kind with my name and permutation, in its
+     *  0 setting. */
+    Rotor unset() {
+        return new Rotor(_name, _permutation);
+    }
+
     /** Returns true iff I am positioned to allow the rotor to my left
      *  to advance. */
     boolean atNotch() {
         return false;
     }
 
+    /** Returns true iff I would be at a notch in setting POSN. */
+    boolean notchAt(int posn) {
+        return false;
+    }
+
     /** Advance me one position, if possible. By default, does nothing. */
     void advance() {
     }
@@ -103,7 +158,7 @@ class Rotor {
     private final String _name;
 
     /** The permutation implemented by this rotor in its 0 position. */
-    private Permutation _permutation;
+    private final Permutation _permutation;
 
     /** the setting of the machine. */
     private int _setting;
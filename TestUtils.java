@@ -1,6 +1,9 @@
 package enigma;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 /** Utility definitions for use in unit tests.
  *  @author P. N. Hilfinger
@@ -39,6 +42,54 @@ class TestUtils {
                   + "(PW) (QZ) (SX) (UY)");
     }
 
+    /** The naval rotors by name, each with its description in a
+     *  configuration file: "R" for a reflector, "N" for a fixed rotor, and
+     *  "M" followed by its notches for a moving rotor. */
+    static final String[][] NAVAL_ROTORS = {
+        { "I", "MQ" }, { "II", "ME" }, { "III", "MV" }, { "IV", "MJ" },
+        { "V", "MZ" }, { "VI", "MZM" }, { "VII", "MZM" }, { "VIII", "MZM" },
+        { "Beta", "N" }, { "Gamma", "N" }, { "B", "R" }, { "C", "R" },
+    };
+
+    /** Return new copies of the naval rotors named NAMES, wired as in
+     *  NAVALA, or of all of them if NAMES is empty. */
+    static ArrayList<Rotor> navalRotors(String... names) {
+        List<String> wanted = Arrays.asList(names);
+        ArrayList<Rotor> rotors = new ArrayList<>();
+        for (String[] rotor : NAVAL_ROTORS) {
+            String name = rotor[0];
+            if (!wanted.isEmpty() && !wanted.contains(name)) {
+                continue;
+            }
+            Permutation perm = new Permutation(NAVALA.get(name), UPPER);
+            switch (rotor[1].charAt(0)) {
+            case 'R':
+                rotors.add(new Reflector(name, perm));
+                break;
+            case 'N':
+                rotors.add(new FixedRotor(name, perm));
+                break;
+            default:
+                rotors.add(new MovingRotor(name, perm,
+                                           rotor[1].substring(1)));
+                break;
+            }
+        }
+        return rotors;
+    }
+
+    /** Return PLAINTEXT encrypted by a machine with PAWLS pawls holding
+     *  the naval rotors, set up as ROTORS with SETTING, ring setting RING
+     *  and plugboard PLUGBOARD. */
+    static String encrypt(int pawls, String[] rotors, String setting,
+                          String ring, String plugboard, String plaintext) {
+        Machine m = new Machine(UPPER, rotors.length, pawls, navalRotors());
+        m.insertRotors(rotors);
+        m.setRotors(setting, ring);
+        m.setPlugboard(new Permutation(plugboard, UPPER));
+        return m.convert(plaintext);
+    }
+
     /** The mapping of the upper-case alphabet by NAVALA. */
     static final HashMap<String, String> NAVALA_MAP = new HashMap<>();
     static {
@@ -11,7 +11,20 @@ public class UnitTest {
      *  the arguments of runClasses to run other JUnit tests. */
     public static void main(String[] ignored) {
         System.exit(textui.runClasses(PermutationTest.class,
-                                      MovingRotorTest.class));
+                                      MovingRotorTest.class,
+                                      AlphabetTest.class,
+                                      MachineTest.class,
+                                      ConfigParserTest.class,
+                                      PlugboardCacheTest.class,
+                                      KeySearchTest.class,
+                                      BombeTest.class,
+                                      HillClimbTest.class,
+                                      BatchMachineTest.class,
+                                      MetricsTest.class,
+                                      MainTest.class,
+                                      ConfigCacheTest.class,
+                                      GroupWriterTest.class,
+                                      MappedReaderTest.class));
     }
 
 }